@@ -1,7 +1,10 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The Assignment class is used to define variable assignment statements.
@@ -13,6 +16,8 @@ public class Assignment extends Statement
 {
     private String var;
     private Expression exp;
+    private int depth;
+    private int slot;
 
     /**
      * Constructs an Assignment object.
@@ -32,13 +37,127 @@ public class Assignment extends Statement
      */
     public void exec(Environment env)
     {
-        env.setVariable(var, exp.eval(env));
+        env.setVariable(depth, slot, exp.eval(env));
+    }
+
+    @Override
+    public void resolve(Scope scope)
+    {
+        exp.resolve(scope);
+        depth = scope.getDepth(var);
+        slot = scope.getSlot(var, depth);
+    }
+
+    @Override
+    public Statement optimize()
+    {
+        exp = exp.optimize();
+        return this;
+    }
+
+    @Override
+    public Statement eliminateTailCalls(ProcedureDeclaration procDec)
+    {
+        if(! (exp instanceof ProcedureCall))
+            return this;
+        ProcedureCall call = (ProcedureCall) exp;
+        if(! var.equals(procDec.getName()) || ! call.getName().equals(procDec.getName()) ||
+                call.getArgs().size() != procDec.getParams().size())
+            return this;
+        return procDec.tailCall(call.getArgs());
+    }
+
+    /**
+     * Gives the name of the assigned variable.
+     * @return the variable name
+     */
+    public String getVar()
+    {
+        return var;
+    }
+
+    /**
+     * Gives the expression whose value is assigned.
+     * @return the expression
+     */
+    public Expression getExpression()
+    {
+        return exp;
+    }
+
+    @Override
+    public Statement substitute(Map<String, Expression> bindings)
+    {
+        Expression target = bindings.get(var);
+        return new Assignment(target == null ? var : ((Variable) target).getName(),
+                exp.substitute(bindings));
+    }
+
+    @Override
+    public int size()
+    {
+        return 1 + exp.size();
+    }
+
+    @Override
+    public void names(Set<String> names)
+    {
+        names.add(var);
+        exp.names(names);
+    }
+
+    @Override
+    public void callees(Set<String> callees)
+    {
+        exp.callees(callees);
+    }
+
+    @Override
+    public boolean hasCall()
+    {
+        return exp.hasCall();
+    }
+
+    /**
+     * Inlines calls in the expression. If the whole expression is a call
+     * that cannot be inlined as an expression, the call's body is inlined
+     * as statements instead.
+     * @param inliner the Inliner
+     * @return the inlined statement
+     */
+    @Override
+    public Statement inline(Inliner inliner)
+    {
+        exp = exp.inline(inliner);
+        if(exp instanceof ProcedureCall)
+        {
+            Statement inlined = inliner.inline((ProcedureCall) exp,
+                    result -> new Assignment(var, result));
+            if(inlined != null)
+                return inlined;
+        }
+        return this;
     }
 
     @Override
     public void compile(Emitter e)
     {
         exp.compile(e);
-        e.emit("sw $v0, var" + var + "\t# stores v0 in var" + var);
+        if(! e.isLocalVariable(var))
+            e.emit(MipsOpcode.SW, () -> "stores v0 in var" + var, Register.V0,
+                    new Label("var" + var));
+        else
+            e.emit(MipsOpcode.SW, () -> "stores v0 in " + var, Register.V0,
+                    new Address(e.getOffset(var), Register.SP));
+    }
+
+    @Override
+    public void compile(Bytecode code)
+    {
+        exp.compile(code);
+        if(code.inProcedure() && depth == 0)
+            code.emit(Opcode.STORE_LOCAL, slot);
+        else
+            code.emit(Opcode.STORE_GLOBAL, slot);
     }
 }
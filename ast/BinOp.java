@@ -1,7 +1,10 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The BinOp class is used to define binary arithmetic operations.
@@ -11,7 +14,7 @@ import emitter.*;
  */
 public class BinOp extends Expression
 {
-    private String op;
+    private Operator op;
     private Expression exp1;
     private Expression exp2;
 
@@ -21,7 +24,7 @@ public class BinOp extends Expression
      * @param exp1 first expression
      * @param exp2 second expression
      */
-    public BinOp(String op, Expression exp1, Expression exp2)
+    public BinOp(Operator op, Expression exp1, Expression exp2)
     {
         this.op = op;
         this.exp1 = exp1;
@@ -37,43 +40,298 @@ public class BinOp extends Expression
     {
         int int1 = exp1.eval(env);
         int int2 = exp2.eval(env);
-        if(op.equals("+"))
-            return int1 + int2;
-        else if(op.equals("-"))
-            return int1 - int2;
-        else if(op.equals("*"))
-            return int1 * int2;
-        else if(op.equals("/"))
-            return int1 / int2;
-        else
-            return int1 % int2;
+        return op.apply(int1, int2);
+    }
+
+    @Override
+    public void resolve(Scope scope)
+    {
+        exp1.resolve(scope);
+        exp2.resolve(scope);
+    }
+
+    /**
+     * Folds this operation if both operands are constants. Otherwise,
+     * removes additions of 0 and multiplications and divisions by 1, turns
+     * multiplication by 0 into 0 unless the other operand could fail,
+     * turns multiplication by -1 (unary minus) into subtraction from 0,
+     * and turns multiplication and division by a power of two into shifts.
+     * @return the simplified expression
+     */
+    @Override
+    public Expression optimize()
+    {
+        exp1 = exp1.optimize();
+        exp2 = exp2.optimize();
+        if(op == Operator.MULTIPLY && exp1 instanceof Number && ! (exp2 instanceof Number))
+        {
+            Expression constant = exp1;
+            exp1 = exp2;
+            exp2 = constant;
+        }
+        if(! (exp2 instanceof Number))
+            return this;
+        int value2 = ((Number) exp2).getValue();
+        if(exp1 instanceof Number)
+        {
+            if(value2 == 0 && (op == Operator.DIVIDE || op == Operator.MODULO))
+                return this;
+            return new Number(op.apply(((Number) exp1).getValue(), value2));
+        }
+        switch(op)
+        {
+            case ADD:
+            case SUBTRACT:
+                return value2 == 0 ? exp1 : this;
+            case MULTIPLY:
+                if(value2 == 1)
+                    return exp1;
+                if(value2 == -1)
+                    return new BinOp(Operator.SUBTRACT, new Number(0), exp1);
+                if(value2 == 0 && ! exp1.canFail())
+                    return exp2;
+                if(isPowerOfTwo(value2))
+                    return new BinOp(Operator.SHIFT_LEFT, exp1,
+                            new Number(Integer.numberOfTrailingZeros(value2)));
+                return this;
+            case DIVIDE:
+                if(value2 == 1)
+                    return exp1;
+                if(isPowerOfTwo(value2))
+                    return new BinOp(Operator.SHIFT_RIGHT, exp1,
+                            new Number(Integer.numberOfTrailingZeros(value2)));
+                return this;
+            default:
+                return this;
+        }
+    }
+
+    /**
+     * Determines if a value is a power of two greater than 1.
+     * @param value the value to check
+     * @return true if value is 2, 4, 8, ...; otherwise, false
+     */
+    private static boolean isPowerOfTwo(int value)
+    {
+        return value > 1 && (value & (value - 1)) == 0;
+    }
+
+    /**
+     * Determines if this operation is a shift, whose right operand is
+     * always a Number.
+     * @return true if op is SHIFT_LEFT or SHIFT_RIGHT; otherwise, false
+     */
+    private boolean isShift()
+    {
+        return op == Operator.SHIFT_LEFT || op == Operator.SHIFT_RIGHT;
+    }
+
+    @Override
+    public int registerNeed()
+    {
+        if(isShift())
+            return exp1.registerNeed();
+        int need1 = exp1.registerNeed();
+        int need2 = exp2.registerNeed();
+        return need1 == need2 ? need1 + 1 : Math.max(need1, need2);
+    }
+
+    @Override
+    public Expression substitute(Map<String, Expression> bindings)
+    {
+        return new BinOp(op, exp1.substitute(bindings), exp2.substitute(bindings));
+    }
+
+    @Override
+    public int size()
+    {
+        return 1 + exp1.size() + exp2.size();
+    }
+
+    @Override
+    public void names(Set<String> names)
+    {
+        exp1.names(names);
+        exp2.names(names);
+    }
+
+    @Override
+    public void callees(Set<String> callees)
+    {
+        exp1.callees(callees);
+        exp2.callees(callees);
+    }
+
+    @Override
+    public Expression inline(Inliner inliner)
+    {
+        exp1 = exp1.inline(inliner);
+        exp2 = exp2.inline(inliner);
+        return this;
+    }
+
+    @Override
+    public boolean hasCall()
+    {
+        return exp1.hasCall() || exp2.hasCall();
+    }
+
+    /**
+     * Determines if this operation could fail: if it divides (or takes the
+     * remainder) by anything but a nonzero constant, or if either operand
+     * could fail.
+     * @return true if evaluating this operation could fail; otherwise, false
+     */
+    @Override
+    public boolean canFail()
+    {
+        if((op == Operator.DIVIDE || op == Operator.MODULO) &&
+                ! (exp2 instanceof Number && ((Number) exp2).getValue() != 0))
+            return true;
+        return exp1.canFail() || exp2.canFail();
     }
 
     @Override
     public void compile(Emitter e)
     {
+        Register reg = e.isAllocatingRegisters() ? e.allocateRegister() : null;
+        if(reg != null)
+        {
+            compileTo(e, reg);
+            e.emit(MipsOpcode.MOVE, () -> "moves " + reg.getName() + " to v0", Register.V0, reg);
+            e.freeRegister(reg);
+            return;
+        }
+        if(isShift())
+        {
+            exp1.compile(e);
+            emitShift(e, Register.V0);
+            return;
+        }
         exp1.compile(e);
-        e.emitPush("$v0");
+        e.emitPush(Register.V0);
         exp2.compile(e);
-        e.emitPop("$t0");
-        if(op.equals("+"))
-            e.emit("addu $v0, $t0, $v0\t# stores t0 + v0 in v0");
-        else if(op.equals("-"))
-            e.emit("subu $v0, $t0, $v0\t# stores t0 - v0 in v0");
-        else if(op.equals("*"))
+        e.emitPop(Register.T0);
+        switch(op)
+        {
+            case ADD:
+                e.emit(MipsOpcode.ADDU, "stores t0 + v0 in v0", Register.V0, Register.T0,
+                        Register.V0);
+                break;
+            case SUBTRACT:
+                e.emit(MipsOpcode.SUBU, "stores t0 - v0 in v0", Register.V0, Register.T0,
+                        Register.V0);
+                break;
+            case MULTIPLY:
+                e.emit(MipsOpcode.MULT, "multiplies t0 and v0", Register.T0, Register.V0);
+                e.emit(MipsOpcode.MFLO, "stores product in v0", Register.V0);
+                break;
+            case DIVIDE:
+                e.emit(MipsOpcode.DIV, "divides t0 by v0", Register.T0, Register.V0);
+                e.emit(MipsOpcode.MFLO, "stores quotient in v0", Register.V0);
+                break;
+            default:
+                e.emit(MipsOpcode.DIV, "divides t0 by v0", Register.T0, Register.V0);
+                e.emit(MipsOpcode.MFHI, "stores remainder in v0", Register.V0);
+                break;
+        }
+    }
+
+    @Override
+    public void compileTo(Emitter e, Register reg)
+    {
+        if(isShift())
+        {
+            exp1.compileTo(e, reg);
+            emitShift(e, reg);
+            return;
+        }
+        Register right = compileOperands(e, exp1, exp2, reg);
+        String name = reg.getName();
+        String rightName = right.getName();
+        switch(op)
+        {
+            case ADD:
+                e.emit(MipsOpcode.ADDU, () -> "stores " + name + " + " + rightName + " in " + name,
+                        reg, reg, right);
+                break;
+            case SUBTRACT:
+                e.emit(MipsOpcode.SUBU, () -> "stores " + name + " - " + rightName + " in " + name,
+                        reg, reg, right);
+                break;
+            case MULTIPLY:
+                e.emit(MipsOpcode.MULT, () -> "multiplies " + name + " and " + rightName,
+                        reg, right);
+                e.emit(MipsOpcode.MFLO, () -> "stores product in " + name, reg);
+                break;
+            case DIVIDE:
+                e.emit(MipsOpcode.DIV, () -> "divides " + name + " by " + rightName, reg, right);
+                e.emit(MipsOpcode.MFLO, () -> "stores quotient in " + name, reg);
+                break;
+            default:
+                e.emit(MipsOpcode.DIV, () -> "divides " + name + " by " + rightName, reg, right);
+                e.emit(MipsOpcode.MFHI, () -> "stores remainder in " + name, reg);
+                break;
+        }
+        e.freeRegister(right);
+    }
+
+    /**
+     * Emits the shift of a register by the constant right operand. A right
+     * shift first adds 2^k - 1 to negative values (using $t0) so that it
+     * rounds toward zero like div.
+     * @param e the emitter
+     * @param reg the register holding the left operand, which gets the result
+     */
+    private void emitShift(Emitter e, Register reg)
+    {
+        int bits = ((Number) exp2).getValue();
+        String name = reg.getName();
+        if(op == Operator.SHIFT_LEFT)
         {
-            e.emit("mult $t0, $v0\t# multiplies t0 and v0");
-            e.emit("mflo $v0\t#stores product in v0");
+            e.emit(MipsOpcode.SLL, () -> "multiplies " + name + " by " + (1 << bits),
+                    reg, reg, new Immediate(bits));
+            return;
         }
-        else if(op.equals("/"))
+        e.emit(MipsOpcode.SRA, () -> "t0 is -1 if " + name + " is negative, else 0",
+                Register.T0, reg, new Immediate(31));
+        e.emit(MipsOpcode.SRL,
+                () -> "t0 is " + ((1 << bits) - 1) + " if " + name + " is negative, else 0",
+                Register.T0, Register.T0, new Immediate(32 - bits));
+        e.emit(MipsOpcode.ADDU, () -> "rounds " + name + " toward zero", reg, reg, Register.T0);
+        e.emit(MipsOpcode.SRA, () -> "divides " + name + " by " + (1 << bits),
+                reg, reg, new Immediate(bits));
+    }
+
+    @Override
+    public void compile(Bytecode code)
+    {
+        if(isShift())
         {
-            e.emit("div $t0, $v0\t# divides t0 by v0");
-            e.emit("mflo $v0\t# stores quotient in v0");
+            exp1.compile(code);
+            code.emit(Opcode.PUSH, 1 << ((Number) exp2).getValue());
+            code.emit(op == Operator.SHIFT_LEFT ? Opcode.MULTIPLY : Opcode.DIVIDE);
+            return;
         }
-        else
+        exp1.compile(code);
+        exp2.compile(code);
+        switch(op)
         {
-            e.emit("div $t0, $v0\t# divides t0 by v0");
-            e.emit("mfhi $v0\t# stores remainder in v0");
+            case ADD:
+                code.emit(Opcode.ADD);
+                break;
+            case SUBTRACT:
+                code.emit(Opcode.SUBTRACT);
+                break;
+            case MULTIPLY:
+                code.emit(Opcode.MULTIPLY);
+                break;
+            case DIVIDE:
+                code.emit(Opcode.DIVIDE);
+                break;
+            default:
+                code.emit(Opcode.MODULO);
+                break;
         }
     }
 }
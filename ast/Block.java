@@ -1,7 +1,11 @@
 package ast;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import environment.*;
+import vm.*;
 import emitter.*;
 
 /**
@@ -35,10 +39,115 @@ public class Block extends Statement
             stmt.exec(env);
     }
 
+    @Override
+    public void resolve(Scope scope)
+    {
+        for(Statement stmt: stmts)
+            stmt.resolve(scope);
+    }
+
+    /**
+     * Simplifies every statement in this block, dropping the ones that
+     * turn out to be empty blocks.
+     * @return this block
+     */
+    @Override
+    public Statement optimize()
+    {
+        List<Statement> optimized = new ArrayList<Statement>();
+        for(Statement stmt: stmts)
+        {
+            stmt = stmt.optimize();
+            if(! (stmt instanceof Block && ((Block) stmt).stmts.isEmpty()))
+                optimized.add(stmt);
+        }
+        stmts = optimized;
+        return this;
+    }
+
+    /**
+     * Eliminates tail calls in the last statement of this block, the only
+     * one in tail position.
+     * @param procDec the procedure whose body this block is in
+     * @return this block
+     */
+    @Override
+    public Statement eliminateTailCalls(ProcedureDeclaration procDec)
+    {
+        if(! stmts.isEmpty())
+            stmts.set(stmts.size() - 1, stmts.get(stmts.size() - 1).eliminateTailCalls(procDec));
+        return this;
+    }
+
+    @Override
+    public Statement substitute(Map<String, Expression> bindings)
+    {
+        List<Statement> copies = new ArrayList<Statement>();
+        for(Statement stmt: stmts)
+            copies.add(stmt.substitute(bindings));
+        return new Block(copies);
+    }
+
+    @Override
+    public int size()
+    {
+        int size = 1;
+        for(Statement stmt: stmts)
+            size += stmt.size();
+        return size;
+    }
+
+    @Override
+    public void names(Set<String> names)
+    {
+        for(Statement stmt: stmts)
+            stmt.names(names);
+    }
+
+    @Override
+    public void callees(Set<String> callees)
+    {
+        for(Statement stmt: stmts)
+            stmt.callees(callees);
+    }
+
+    @Override
+    public boolean hasWriteln()
+    {
+        for(Statement stmt: stmts)
+            if(stmt.hasWriteln())
+                return true;
+        return false;
+    }
+
+    @Override
+    public boolean hasCall()
+    {
+        for(Statement stmt: stmts)
+            if(stmt.hasCall())
+                return true;
+        return false;
+    }
+
+    @Override
+    public Statement inline(Inliner inliner)
+    {
+        for(int i = 0; i < stmts.size(); i++)
+            stmts.set(i, stmts.get(i).inline(inliner));
+        return this;
+    }
+
     @Override
     public void compile(Emitter e)
     {
         for(Statement stmt: stmts)
             stmt.compile(e);
     }
+
+    @Override
+    public void compile(Bytecode code)
+    {
+        for(Statement stmt: stmts)
+            stmt.compile(code);
+    }
 }
@@ -1,7 +1,10 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The Condition class is used to define a boolean expression
@@ -14,7 +17,7 @@ public class Condition extends Expression
 {
     private Expression exp1;
     private Expression exp2;
-    private String relop;
+    private Relop relop;
 
     /**
      * Constructor for a Condition object.
@@ -22,7 +25,7 @@ public class Condition extends Expression
      * @param exp2 the second expression
      * @param relop the comparison operator
      */
-    public Condition(Expression exp1, Expression exp2, String relop)
+    public Condition(Expression exp1, Expression exp2, Relop relop)
     {
         this.exp1 = exp1;
         this.exp2 = exp2;
@@ -30,26 +33,110 @@ public class Condition extends Expression
     }
 
     /**
-     * Determines if this Condition is true.
+     * Determines if this Condition is true. Each expression is evaluated
+     * exactly once, left to right, so a ProcedureCall in either one runs
+     * (and prints) only once per test.
      * @param env the environment
      * @return 0 if false, 1 if true
      */
     public int eval(Environment env)
     {
         int value1 = exp1.eval(env);
-        int value2 = exp1.eval(env);
-        if(relop.equals("="))
-            return value1 == value2 ? 1 : 0;
-        else if(relop.equals("<>"))
-            return exp1.eval(env) != exp2.eval(env) ? 1 : 0;
-        else if(relop.equals("<"))
-            return exp1.eval(env) < exp2.eval(env) ? 1 : 0;
-        else if(relop.equals(">"))
-            return exp1.eval(env) > exp2.eval(env) ? 1 : 0;
-        else if(relop.equals("<="))
-            return exp1.eval(env) <= exp2.eval(env) ? 1 : 0;
-        else
-            return exp1.eval(env) >= exp2.eval(env) ? 1 : 0;
+        int value2 = exp2.eval(env);
+        return relop.test(value1, value2) ? 1 : 0;
+    }
+
+    @Override
+    public void resolve(Scope scope)
+    {
+        exp1.resolve(scope);
+        exp2.resolve(scope);
+    }
+
+    /**
+     * Folds constants in both expressions.
+     * @return this Condition
+     */
+    @Override
+    public Condition optimize()
+    {
+        exp1 = exp1.optimize();
+        exp2 = exp2.optimize();
+        return this;
+    }
+
+    /**
+     * Determines if this Condition compares two constants that make it true.
+     * @return true if the Condition is always true; otherwise, false
+     */
+    public boolean isAlwaysTrue()
+    {
+        return exp1 instanceof Number && exp2 instanceof Number &&
+                relop.test(((Number) exp1).getValue(), ((Number) exp2).getValue());
+    }
+
+    /**
+     * Determines if this Condition compares two constants that make it false.
+     * @return true if the Condition is always false; otherwise, false
+     */
+    public boolean isAlwaysFalse()
+    {
+        return exp1 instanceof Number && exp2 instanceof Number &&
+                ! relop.test(((Number) exp1).getValue(), ((Number) exp2).getValue());
+    }
+
+    @Override
+    public int registerNeed()
+    {
+        int need1 = exp1.registerNeed();
+        int need2 = exp2.registerNeed();
+        return need1 == need2 ? need1 + 1 : Math.max(need1, need2);
+    }
+
+    @Override
+    public Condition substitute(Map<String, Expression> bindings)
+    {
+        return new Condition(exp1.substitute(bindings), exp2.substitute(bindings), relop);
+    }
+
+    @Override
+    public int size()
+    {
+        return 1 + exp1.size() + exp2.size();
+    }
+
+    @Override
+    public void names(Set<String> names)
+    {
+        exp1.names(names);
+        exp2.names(names);
+    }
+
+    @Override
+    public void callees(Set<String> callees)
+    {
+        exp1.callees(callees);
+        exp2.callees(callees);
+    }
+
+    @Override
+    public Condition inline(Inliner inliner)
+    {
+        exp1 = exp1.inline(inliner);
+        exp2 = exp2.inline(inliner);
+        return this;
+    }
+
+    @Override
+    public boolean hasCall()
+    {
+        return exp1.hasCall() || exp2.hasCall();
+    }
+
+    @Override
+    public boolean canFail()
+    {
+        return exp1.canFail() || exp2.canFail();
     }
 
     /**
@@ -59,43 +146,103 @@ public class Condition extends Expression
      */
     public void compile(Emitter e, String targetLabel)
     {
-        exp1.compile(e);
-        e.emitPush("$v0");
-        exp2.compile(e);
-        e.emitPop("$t0");
-        String branchStatement = "";
-        String operatorName = "";
-        if(relop.equals("="))
-        {
-            branchStatement = "bne";
-            operatorName = "not equal to";
-        }
-        else if(relop.equals("<>"))
-        {
-            branchStatement = "beq";
-            operatorName = "equal to";
-        }
-        else if(relop.equals("<"))
-        {
-            branchStatement = "bge";
-            operatorName = "greater than or equal to";
-        }
-        else if(relop.equals(">"))
+        Register dest = e.isAllocatingRegisters() ? e.allocateRegister() : null;
+        Register left = dest != null ? dest : Register.T0;
+        Register right;
+        if(dest != null)
+            right = compileOperands(e, exp1, exp2, dest);
+        else
         {
-            branchStatement = "ble";
-            operatorName = "less than or equal to";
+            right = Register.V0;
+            exp1.compile(e);
+            e.emitPush(Register.V0);
+            exp2.compile(e);
+            e.emitPop(Register.T0);
         }
-        else if(relop.equals("<="))
+        MipsOpcode branchStatement;
+        String operatorName;
+        switch(relop)
         {
-            branchStatement = "bgt";
-            operatorName = "greater than";
+            case EQUAL:
+                branchStatement = MipsOpcode.BNE;
+                operatorName = "not equal to";
+                break;
+            case NOT_EQUAL:
+                branchStatement = MipsOpcode.BEQ;
+                operatorName = "equal to";
+                break;
+            case LESS:
+                branchStatement = MipsOpcode.BGE;
+                operatorName = "greater than or equal to";
+                break;
+            case GREATER:
+                branchStatement = MipsOpcode.BLE;
+                operatorName = "less than or equal to";
+                break;
+            case LESS_EQUAL:
+                branchStatement = MipsOpcode.BGT;
+                operatorName = "greater than";
+                break;
+            default:
+                branchStatement = MipsOpcode.BLT;
+                operatorName = "less than";
+                break;
         }
-        else
+        e.emit(branchStatement, () -> "jumps to " + targetLabel + " if " + left.getName() +
+                " is " + operatorName + " " + right.getName(), left, right, new Label(targetLabel));
+        e.freeRegister(right);
+        e.freeRegister(left);
+    }
+
+    /**
+     * Compiles the PASCAL condition to bytecode that leaves 1 on top of the
+     * operand stack if it is true and 0 if it is false. The 0 is pushed
+     * first and 1 is added to it only if the condition holds, so the stack
+     * is one value deeper afterwards on both paths.
+     * @param code the bytecode being built
+     */
+    @Override
+    public void compile(Bytecode code)
+    {
+        int end = code.newLabel();
+        code.emit(Opcode.PUSH, 0);
+        compile(code, end);
+        code.emit(Opcode.PUSH, 1);
+        code.emit(Opcode.ADD);
+        code.placeLabel(end);
+    }
+
+    /**
+     * Compiles the PASCAL condition to bytecode that jumps when it is false.
+     * @param code the bytecode being built
+     * @param falseLabel label to jump to if the condition is false
+     */
+    public void compile(Bytecode code, int falseLabel)
+    {
+        exp1.compile(code);
+        exp2.compile(code);
+        int jump;
+        switch(relop)
         {
-            branchStatement = "blt";
-            operatorName = "less than";
+            case EQUAL:
+                jump = Opcode.JUMP_IF_NOT_EQUAL;
+                break;
+            case NOT_EQUAL:
+                jump = Opcode.JUMP_IF_EQUAL;
+                break;
+            case LESS:
+                jump = Opcode.JUMP_IF_GREATER_EQUAL;
+                break;
+            case GREATER:
+                jump = Opcode.JUMP_IF_LESS_EQUAL;
+                break;
+            case LESS_EQUAL:
+                jump = Opcode.JUMP_IF_GREATER;
+                break;
+            default:
+                jump = Opcode.JUMP_IF_LESS;
+                break;
         }
-        e.emit(branchStatement + " $t0, $v0, " + targetLabel + "\t# jumps to "
-                + targetLabel + " if t0 is " + operatorName + " v0");
+        code.emitJump(jump, falseLabel);
     }
 }
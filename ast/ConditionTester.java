@@ -0,0 +1,135 @@
+package ast;
+
+import environment.*;
+import vm.*;
+
+import java.util.Map;
+
+/**
+ * The ConditionTester class checks that Condition.eval() evaluates each of
+ * its operands exactly once per evaluation. Every Relop is tried on pairs
+ * of operands that are less than, equal to and greater than each other;
+ * each operand counts how many times it is evaluated, as an operand with
+ * side effects (a procedure call that changes a global variable) would
+ * show it. Each Condition is evaluated twice, and after each evaluation
+ * both counts must have gone up by exactly one, the left operand must
+ * have been evaluated before the right one, and the result must be what
+ * the Relop gives.
+ *
+ * Usage: java ast.ConditionTester
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class ConditionTester
+{
+    private static final int[][] PAIRS = {{3, 4}, {5, 5}, {7, 2}};
+    private static final int EVALUATIONS = 2;
+
+    private static int clock;
+
+    /**
+     * A Counter is an operand that counts its own evaluations.
+     */
+    private static class Counter extends Expression
+    {
+        private int value;
+        private int count;
+        private int time;
+
+        /**
+         * Constructor for a Counter.
+         * @param value the value the Counter evaluates to
+         */
+        Counter(int value)
+        {
+            this.value = value;
+        }
+
+        /**
+         * Counts one more evaluation and notes when it happened.
+         * @param env the environment
+         * @return the value of this Counter
+         */
+        public int eval(Environment env)
+        {
+            count++;
+            time = ++clock;
+            return value;
+        }
+
+        /**
+         * Does nothing, since a Counter uses no variables.
+         * @param scope the scope
+         */
+        public void resolve(Scope scope)
+        {
+        }
+
+        /**
+         * Gives this Counter, which uses no variables.
+         * @param bindings the expressions for some variable names
+         * @return this Counter
+         */
+        public Expression substitute(Map<String, Expression> bindings)
+        {
+            return this;
+        }
+
+        /**
+         * Compiles this Counter to Bytecode as its value.
+         * @param code the Bytecode being built
+         */
+        public void compile(Bytecode code)
+        {
+            code.emit(Opcode.PUSH, value);
+        }
+    }
+
+    /**
+     * Evaluates a Condition for every Relop and pair of operands, printing
+     * the details of each mismatch. Exits with status 1 if there are any.
+     * @param args not used
+     */
+    public static void main(String[] args)
+    {
+        Environment env = new Environment();
+        int failures = 0;
+        int checks = 0;
+        for(Relop relop: Relop.values())
+        {
+            for(int[] pair: PAIRS)
+            {
+                Counter left = new Counter(pair[0]);
+                Counter right = new Counter(pair[1]);
+                Condition condition = new Condition(left, right, relop);
+                for(int i = 1; i <= EVALUATIONS; i++)
+                {
+                    checks++;
+                    int result = condition.eval(env);
+                    int expected = relop.test(pair[0], pair[1]) ? 1 : 0;
+                    if(left.count != i || right.count != i || result != expected)
+                    {
+                        failures++;
+                        System.out.println(pair[0] + " " + relop + " " + pair[1] +
+                                ", evaluation " + i + ": expected " + expected + " with " + i +
+                                " evaluation(s) of each operand but got " + result + " with " +
+                                left.count + " and " + right.count);
+                    }
+                    else if(left.time > right.time)
+                    {
+                        failures++;
+                        System.out.println(pair[0] + " " + relop + " " + pair[1] +
+                                ", evaluation " + i + ": the right operand was evaluated first");
+                    }
+                }
+            }
+        }
+        if(failures > 0)
+        {
+            System.out.println(failures + " of " + checks + " evaluations wrong");
+            System.exit(1);
+        }
+        System.out.println("All " + checks + " evaluations evaluate each operand once");
+    }
+}
@@ -1,7 +1,10 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The Expression class is used to abstractly define
@@ -19,6 +22,68 @@ public abstract class Expression
      */
     public abstract int eval(Environment env);
 
+    /**
+     * Resolves every variable used in this expression to its frame slot.
+     * @param scope the scope in which this expression appears
+     */
+    public abstract void resolve(Scope scope);
+
+    /**
+     * Simplifies this expression, folding constants and replacing
+     * operations with cheaper equivalent ones.
+     * @return the simplified expression (this one if nothing changed)
+     */
+    public Expression optimize()
+    {
+        return this;
+    }
+
+    /**
+     * Makes a copy of this expression in which every variable whose name
+     * is bound is replaced by a copy of the expression it is bound to.
+     * @param bindings maps variable names to expressions
+     * @return the copy, which has to be resolved before it is used
+     */
+    public abstract Expression substitute(Map<String, Expression> bindings);
+
+    /**
+     * Gives the number of nodes in this expression, as a measure of how
+     * much code it compiles to.
+     * @return the number of nodes
+     */
+    public int size()
+    {
+        return 1;
+    }
+
+    /**
+     * Adds the name of every variable this expression reads to a set.
+     * @param names the set of names
+     */
+    public void names(Set<String> names)
+    {
+    }
+
+    /**
+     * Adds the name of every procedure this expression calls to a set.
+     * @param callees the set of procedure names
+     */
+    public void callees(Set<String> callees)
+    {
+    }
+
+    /**
+     * Replaces calls in this expression by the bodies of the called
+     * procedures where the Inliner allows it.
+     * @param inliner the Inliner
+     * @return the expression with calls inlined (this one if nothing was
+     *         replaced)
+     */
+    public Expression inline(Inliner inliner)
+    {
+        return this;
+    }
+
     /**
      * Compiles the PASCAL Expression to MIPS.
      * @param e the emitter
@@ -27,4 +92,117 @@ public abstract class Expression
     {
         throw new RuntimeException("Implement me!!!");
     }
+
+    /**
+     * Gives the number of registers needed to evaluate this expression
+     * without spilling (its Sethi-Ullman number).
+     * @return the register need of this expression
+     */
+    public int registerNeed()
+    {
+        return 1;
+    }
+
+    /**
+     * Determines if evaluating this expression could fail, by dividing by
+     * zero or by calling a procedure (which could itself fail), so that it
+     * must not be optimized away even if its value is not needed.
+     * @return true if this expression could fail; otherwise, false
+     */
+    public boolean canFail()
+    {
+        return false;
+    }
+
+    /**
+     * Determines if evaluating this expression calls a procedure, which
+     * means its evaluation order relative to other expressions matters.
+     * @return true if this expression contains a ProcedureCall; otherwise, false
+     */
+    public boolean hasCall()
+    {
+        return false;
+    }
+
+    /**
+     * Determines if this expression can be compiled after a procedure call
+     * instead of before it, because it has the same value either way.
+     * @param e the emitter, which knows which variables are local
+     * @return true if no procedure call can change this expression's value;
+     *         otherwise, false
+     */
+    public boolean isUnchangedByCalls(Emitter e)
+    {
+        return false;
+    }
+
+    /**
+     * Compiles the PASCAL Expression to MIPS that leaves its value in the
+     * given register. Only used when the Emitter allocates registers.
+     * @param e the emitter
+     * @param reg the register that receives the value
+     */
+    public void compileTo(Emitter e, Register reg)
+    {
+        compile(e);
+        e.emit(MipsOpcode.MOVE, () -> "moves v0 to " + reg.getName(), reg, Register.V0);
+    }
+
+    /**
+     * Compiles two operands into registers, evaluating the one that needs
+     * more registers first unless either contains a ProcedureCall. If no
+     * second register is free, or if the second operand contains a
+     * ProcedureCall, the first operand is spilled to the stack, or compiled
+     * after the second if no call can change it.
+     * @param e the emitter
+     * @param exp1 the left operand, which ends up in dest
+     * @param exp2 the right operand
+     * @param dest an allocated register that receives the left operand
+     * @return the register holding the right operand, which the caller
+     *         must pass to e.freeRegister when done with it
+     */
+    protected static Register compileOperands(Emitter e, Expression exp1, Expression exp2,
+                                              Register dest)
+    {
+        if(exp2.registerNeed() > exp1.registerNeed() && ! exp1.hasCall() && ! exp2.hasCall())
+        {
+            Register other = e.allocateRegister();
+            if(other != null)
+            {
+                exp2.compileTo(e, other);
+                exp1.compileTo(e, dest);
+                return other;
+            }
+        }
+        if(exp2.hasCall() && exp1.isUnchangedByCalls(e))
+        {
+            exp2.compileTo(e, dest);
+            e.emit(MipsOpcode.MOVE, () -> "moves " + dest.getName() + " to t0", Register.T0,
+                    dest);
+            exp1.compileTo(e, dest);
+            return Register.T0;
+        }
+        exp1.compileTo(e, dest);
+        // a register held across a call would be saved and restored by
+        // every call inside exp2, so the left operand is spilled once instead
+        Register other = exp2.hasCall() ? null : e.allocateRegister();
+        if(other == null)
+        {
+            e.emitPush(dest);
+            exp2.compileTo(e, dest);
+            e.emit(MipsOpcode.MOVE, () -> "moves " + dest.getName() + " to t0", Register.T0,
+                    dest);
+            e.emitPop(dest);
+            return Register.T0;
+        }
+        exp2.compileTo(e, other);
+        return other;
+    }
+
+    /**
+     * Compiles the PASCAL Expression to bytecode that leaves its value
+     * on top of the VirtualMachine's operand stack.
+     * @param code the bytecode being built
+     */
+    public abstract void compile(Bytecode code);
 }
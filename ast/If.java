@@ -1,6 +1,10 @@
 package ast;
 
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
 import environment.*;
+import vm.*;
 import emitter.*;
 
 /**
@@ -35,12 +39,98 @@ public class If extends Statement
             condStmt.exec(env);
     }
 
+    @Override
+    public void resolve(Scope scope)
+    {
+        cond.resolve(scope);
+        condStmt.resolve(scope);
+    }
+
+    /**
+     * Simplifies the condition and the statement. An IF whose condition is
+     * constant is replaced by its statement or by an empty Block.
+     * @return the simplified statement
+     */
+    @Override
+    public Statement optimize()
+    {
+        cond = cond.optimize();
+        condStmt = condStmt.optimize();
+        if(cond.isAlwaysTrue())
+            return condStmt;
+        if(cond.isAlwaysFalse())
+            return new Block(new ArrayList<Statement>());
+        return this;
+    }
+
+    @Override
+    public Statement eliminateTailCalls(ProcedureDeclaration procDec)
+    {
+        condStmt = condStmt.eliminateTailCalls(procDec);
+        return this;
+    }
+
+    @Override
+    public Statement substitute(Map<String, Expression> bindings)
+    {
+        return new If(cond.substitute(bindings), condStmt.substitute(bindings));
+    }
+
+    @Override
+    public int size()
+    {
+        return 1 + cond.size() + condStmt.size();
+    }
+
+    @Override
+    public void names(Set<String> names)
+    {
+        cond.names(names);
+        condStmt.names(names);
+    }
+
+    @Override
+    public void callees(Set<String> callees)
+    {
+        cond.callees(callees);
+        condStmt.callees(callees);
+    }
+
+    @Override
+    public boolean hasWriteln()
+    {
+        return condStmt.hasWriteln();
+    }
+
+    @Override
+    public boolean hasCall()
+    {
+        return cond.hasCall() || condStmt.hasCall();
+    }
+
+    @Override
+    public Statement inline(Inliner inliner)
+    {
+        cond = cond.inline(inliner);
+        condStmt = condStmt.inline(inliner);
+        return this;
+    }
+
     @Override
     public void compile(Emitter e)
     {
-        String branchLabel = "endIf" + e.nextLabelID();
+        String branchLabel = e.nextLabel("endIf");
         cond.compile(e, branchLabel);
         condStmt.compile(e);
-        e.emit(branchLabel + ":");
+        e.emitLabel(branchLabel);
+    }
+
+    @Override
+    public void compile(Bytecode code)
+    {
+        int endLabel = code.newLabel();
+        cond.compile(code, endLabel);
+        condStmt.compile(code);
+        code.placeLabel(endLabel);
     }
 }
@@ -0,0 +1,202 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The Inliner class decides which ProcedureCalls are replaced by the body
+ * of the called procedure, and builds the replacements. Only procedures
+ * that make no calls themselves (so none is recursive) and whose body has
+ * at most a given number of nodes are inlined.
+ *
+ * A procedure whose body is just name := expression, where the expression
+ * reads only parameters and global variables, is inlined as that
+ * expression with the arguments put in place of the parameters, wherever
+ * the call appears. This is done only when no argument contains a call or
+ * can fail (as a division by zero can), so evaluating an argument more
+ * than once (or not at all) changes nothing.
+ *
+ * Any other procedure is inlined only where its call is the whole
+ * right-hand side of an Assignment or the whole argument of a WRITELN. The
+ * call becomes statements that assign the arguments to fresh hidden
+ * variables standing in for the parameters, set hidden copies of the local
+ * variables and the return value to 0, run a copy of the body on the
+ * hidden variables and then use the hidden return value. The hidden
+ * variables are named like _sq3_x, which no PASCAL identifier can be; they
+ * are local variables of the calling procedure, or global variables when
+ * the call is in the main statement.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class Inliner
+{
+    /**
+     * The largest procedure body (in nodes) that Program.inline() inlines
+     * if no other size is given.
+     */
+    public static final int DEFAULT_MAX_SIZE = 24;
+
+    private Map<String, ProcedureDeclaration> procedures;
+    private int maxSize;
+    private ProcedureDeclaration caller;
+    private List<String> hiddenGlobals;
+    private int sitesInlined;
+    private int nextID;
+
+    /**
+     * Constructor for an Inliner.
+     * @param procDecList every procedure in the Program
+     * @param maxSize the largest procedure body (in nodes) to inline
+     */
+    public Inliner(List<ProcedureDeclaration> procDecList, int maxSize)
+    {
+        procedures = new HashMap<String, ProcedureDeclaration>();
+        for(ProcedureDeclaration procDec: procDecList)
+            procedures.put(procDec.getName(), procDec);
+        this.maxSize = maxSize;
+        hiddenGlobals = new ArrayList<String>();
+    }
+
+    /**
+     * Sets the procedure whose body calls are being inlined into.
+     * @param caller the procedure, or null for the main statement
+     */
+    public void setCaller(ProcedureDeclaration caller)
+    {
+        this.caller = caller;
+    }
+
+    /**
+     * Gives the number of calls inlined so far.
+     * @return the number of calls inlined
+     */
+    public int getSitesInlined()
+    {
+        return sitesInlined;
+    }
+
+    /**
+     * Gives the hidden variables that calls inlined into the main statement
+     * need, which the Program has to declare as global variables.
+     * @return the names of the hidden global variables
+     */
+    public List<String> getHiddenGlobals()
+    {
+        return hiddenGlobals;
+    }
+
+    /**
+     * Replaces a call by the called procedure's result expression, if the
+     * procedure can be inlined as an expression.
+     * @param call the call
+     * @return the inlined expression, or call if it is not inlined
+     */
+    public Expression inline(ProcedureCall call)
+    {
+        ProcedureDeclaration procDec = inlinable(call);
+        if(procDec == null || ! (procDec.getStatement() instanceof Assignment))
+            return call;
+        Assignment body = (Assignment) procDec.getStatement();
+        if(! body.getVar().equals(procDec.getName()))
+            return call;
+        Set<String> names = new HashSet<String>();
+        body.getExpression().names(names);
+        if(names.contains(procDec.getName()))
+            return call;
+        for(String locVar: procDec.getLocVars())
+            if(names.contains(locVar))
+                return call;
+        for(Expression arg: call.getArgs())
+            if(arg.hasCall() || arg.canFail())
+                return call;
+        Map<String, Expression> bindings = new HashMap<String, Expression>();
+        List<String> params = procDec.getParams();
+        for(int i = 0; i < params.size(); i++)
+            bindings.put(params.get(i), call.getArgs().get(i));
+        sitesInlined++;
+        return body.getExpression().substitute(bindings);
+    }
+
+    /**
+     * Replaces a statement whose value is a call by the called procedure's
+     * body, if the procedure can be inlined.
+     * @param call the call
+     * @param use builds the statement that uses the call's value, given an
+     *            expression for the value
+     * @return the statements that replace the call and its use, or null if
+     *         the call is not inlined
+     */
+    public Statement inline(ProcedureCall call, Function<Expression, Statement> use)
+    {
+        ProcedureDeclaration procDec = inlinable(call);
+        if(procDec == null)
+            return null;
+        String prefix = "_" + procDec.getName() + (++nextID) + "_";
+        Map<String, Expression> bindings = new HashMap<String, Expression>();
+        List<String> hidden = new ArrayList<String>();
+        for(String param: procDec.getParams())
+            hidden.add(param);
+        for(String locVar: procDec.getLocVars())
+            hidden.add(locVar);
+        hidden.add(procDec.getName());
+        for(String name: hidden)
+            bindings.put(name, new Variable(prefix + name));
+
+        List<Statement> stmts = new ArrayList<Statement>();
+        List<String> params = procDec.getParams();
+        for(int i = 0; i < params.size(); i++)
+            stmts.add(new Assignment(prefix + params.get(i), call.getArgs().get(i)));
+        for(String locVar: procDec.getLocVars())
+            stmts.add(new Assignment(prefix + locVar, new Number(0)));
+        stmts.add(new Assignment(prefix + procDec.getName(), new Number(0)));
+        stmts.add(procDec.getStatement().substitute(bindings));
+        stmts.add(use.apply(new Variable(prefix + procDec.getName())));
+
+        for(String name: hidden)
+        {
+            if(caller != null)
+                caller.getLocVars().add(prefix + name);
+            else
+                hiddenGlobals.add(prefix + name);
+        }
+        sitesInlined++;
+        return new Block(stmts);
+    }
+
+    /**
+     * Finds the procedure a call is made to and determines if it can be
+     * inlined at the call: it makes no calls, its body is small enough, the
+     * call passes one argument per parameter, and none of the global
+     * variables it uses is hidden by a parameter or local variable of the
+     * calling procedure.
+     * @param call the call
+     * @return the called procedure, or null if it cannot be inlined here
+     */
+    private ProcedureDeclaration inlinable(ProcedureCall call)
+    {
+        ProcedureDeclaration procDec = procedures.get(call.getName());
+        if(procDec == null || procDec == caller || procDec.getStatement().hasCall() ||
+                procDec.getStatement().size() > maxSize ||
+                call.getArgs().size() != procDec.getParams().size())
+            return null;
+        if(caller != null)
+        {
+            Set<String> names = new HashSet<String>();
+            procDec.getStatement().names(names);
+            names.removeAll(procDec.getParams());
+            names.removeAll(procDec.getLocVars());
+            names.remove(procDec.getName());
+            for(String global: names)
+                if(global.equals(caller.getName()) || caller.getParams().contains(global) ||
+                        caller.getLocVars().contains(global))
+                    return null;
+        }
+        return procDec;
+    }
+}
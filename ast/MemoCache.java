@@ -0,0 +1,134 @@
+package ast;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The MemoCache class remembers the return values of a pure procedure,
+ * keyed by the values of the arguments it was called with, so that exec()
+ * runs the procedure's body only once for each distinct list of arguments.
+ * At most a fixed number of results are kept; when the cache is full, the
+ * result used least recently is forgotten. The cache counts how many
+ * lookups found a result (hits) and how many did not (misses).
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class MemoCache
+{
+    /**
+     * A good number of results to keep for each pure procedure when
+     * memoization is turned on with Program.setMemoCapacity().
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private Map<Key, Integer> results;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor for an empty MemoCache.
+     * @param capacity the largest number of results kept
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public MemoCache(int capacity)
+    {
+        if(capacity <= 0)
+            throw new IllegalArgumentException("Memo cache capacity must be positive, not " +
+                    capacity);
+        results = new LinkedHashMap<Key, Integer>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Integer> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Looks up the return value for a list of arguments, counting a hit or
+     * a miss.
+     * @param args the argument values
+     * @return the remembered return value, or null if there is none
+     */
+    public Integer get(int[] args)
+    {
+        Integer result = results.get(new Key(args));
+        if(result == null)
+            misses++;
+        else
+            hits++;
+        return result;
+    }
+
+    /**
+     * Remembers the return value for a list of arguments, forgetting the
+     * least recently used result if the cache is full.
+     * @param args the argument values, which must not be changed afterwards
+     * @param result the return value
+     */
+    public void put(int[] args, int result)
+    {
+        results.put(new Key(args), result);
+    }
+
+    /**
+     * Gives the number of lookups that found a result.
+     * @return the number of hits
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Gives the number of lookups that found no result.
+     * @return the number of misses
+     */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Gives the number of results currently remembered.
+     * @return the number of results
+     */
+    public int size()
+    {
+        return results.size();
+    }
+
+    /**
+     * A list of argument values compared by content, for use as a key.
+     */
+    private static class Key
+    {
+        private int[] args;
+        private int hash;
+
+        /**
+         * Constructor for a Key.
+         * @param args the argument values
+         */
+        Key(int[] args)
+        {
+            this.args = args;
+            hash = Arrays.hashCode(args);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof Key && Arrays.equals(args, ((Key) other).args);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.Map;
 
 /**
  * The Number class is used to define any number in
@@ -33,9 +35,49 @@ public class Number extends Expression
         return value;
     }
 
+    /**
+     * Gives the numerical value of this Number without an Environment.
+     * @return the integer value of this Number
+     */
+    public int getValue()
+    {
+        return value;
+    }
+
+    @Override
+    public void resolve(Scope scope)
+    {
+    }
+
+    @Override
+    public Expression substitute(Map<String, Expression> bindings)
+    {
+        return this;
+    }
+
+    @Override
+    public boolean isUnchangedByCalls(Emitter e)
+    {
+        return true;
+    }
+
     @Override
     public void compile(Emitter e)
     {
-        e.emit("li $v0, " + value + "\t# loads " + value + " into v0");
+        e.emit(MipsOpcode.LI, () -> "loads " + value + " into v0", Register.V0,
+                new Immediate(value));
+    }
+
+    @Override
+    public void compileTo(Emitter e, Register reg)
+    {
+        e.emit(MipsOpcode.LI, () -> "loads " + value + " into " + reg.getName(), reg,
+                new Immediate(value));
+    }
+
+    @Override
+    public void compile(Bytecode code)
+    {
+        code.emit(Opcode.PUSH, value);
     }
 }
@@ -0,0 +1,46 @@
+package ast;
+
+/**
+ * The Operator enum lists the binary arithmetic operators a BinOp can
+ * apply. The Parser picks the Operator from the token kind when it builds
+ * the BinOp, so no operator text is compared while a Program runs or is
+ * compiled.
+ *
+ * SHIFT_LEFT and SHIFT_RIGHT are only introduced by optimize(), always with
+ * a Number as the right operand. They multiply and divide by that power of
+ * two; SHIFT_RIGHT rounds toward zero, exactly like DIVIDE.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public enum Operator
+{
+    ADD, SUBTRACT, MULTIPLY, DIVIDE, MODULO, SHIFT_LEFT, SHIFT_RIGHT;
+
+    /**
+     * Applies this operator to two values.
+     * @param value1 the left operand
+     * @param value2 the right operand
+     * @return the integer result of the operation
+     */
+    public int apply(int value1, int value2)
+    {
+        switch(this)
+        {
+            case ADD:
+                return value1 + value2;
+            case SUBTRACT:
+                return value1 - value2;
+            case MULTIPLY:
+                return value1 * value2;
+            case DIVIDE:
+                return value1 / value2;
+            case MODULO:
+                return value1 % value2;
+            case SHIFT_LEFT:
+                return value1 << value2;
+            default:
+                return (value1 + ((value1 >> 31) >>> (32 - value2))) >> value2;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package ast;
 
 import environment.*;
+import vm.*;
+import emitter.*;
+import java.util.ArrayList;
 import java.util.List;
-import emitter.Emitter;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The ProcedureCall class is used to define a Procedure call
@@ -15,6 +19,7 @@ public class ProcedureCall extends Expression
 {
     private String name;
     private List<Expression> args;
+    private ProcedureDeclaration procDec;
 
     /**
      * Constructor for a ProcedureCall object.
@@ -28,39 +33,189 @@ public class ProcedureCall extends Expression
     }
 
     /**
-     * Evaluates the return value of this ProcedureCall.
+     * Gives the name of the called Procedure.
+     * @return the name of the Procedure
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Gives the arguments of this ProcedureCall.
+     * @return the list of argument Expressions, in order
+     */
+    public List<Expression> getArgs()
+    {
+        return args;
+    }
+
+    /**
+     * Evaluates the return value of this ProcedureCall. If the Procedure is
+     * pure, its MemoCache is checked first, and the body is run only if it
+     * has not already been run with the same arguments.
      * @param env the environment
      * @return integer output of the Procedure call
+     * @throws IllegalStateException if no Procedure with this name is
+     *                               declared, or if it takes a different
+     *                               number of arguments
      */
     public int eval(Environment env)
     {
-        ProcedureDeclaration procDec = env.getProcedure(name);
-        Environment child = new Environment(env);
-        for(int i = 0; i < args.size(); i++)
+        if(procDec == null)
+            throw new IllegalStateException("Undefined procedure " + name);
+        if(args.size() != procDec.getParams().size())
+            throw new IllegalStateException("Procedure " + name + " takes " +
+                    procDec.getParams().size() + " arguments but is called with " + args.size());
+        MemoCache cache = procDec.getMemoCache();
+        int returnSlot = procDec.getReturnSlot();
+        Environment child;
+        if(cache == null)
         {
-            int value = args.get(i).eval(env);
-            child.declareVariable(procDec.getParams().get(i), value);
+            child = new Environment(env.getGlobal(), procDec.getFrameSize());
+            for(int i = 0; i < args.size(); i++)
+                child.setVariable(0, i, args.get(i).eval(env));
+            // the return value starts at 0, even if a parameter shares its slot
+            child.setVariable(0, returnSlot, 0);
+            procDec.getStatement().exec(child);
+            return child.getVariable(0, returnSlot);
         }
-        child.declareVariable(name, 0);
+        int[] values = new int[args.size()];
+        for(int i = 0; i < values.length; i++)
+            values[i] = args.get(i).eval(env);
+        Integer memo = cache.get(values);
+        if(memo != null)
+            return memo;
+        child = new Environment(env.getGlobal(), procDec.getFrameSize());
+        for(int i = 0; i < values.length; i++)
+            child.setVariable(0, i, values[i]);
+        child.setVariable(0, returnSlot, 0);
         procDec.getStatement().exec(child);
-        return child.getVariable(name);
+        int result = child.getVariable(0, returnSlot);
+        cache.put(values, result);
+        return result;
+    }
+
+    /**
+     * Resolves the arguments and binds this ProcedureCall to the declaration
+     * of the called Procedure, which may come later in the Program.
+     * @param scope the Scope of the statement making the call
+     */
+    @Override
+    public void resolve(Scope scope)
+    {
+        for(Expression arg: args)
+            arg.resolve(scope);
+        procDec = scope.getProcedure(name);
+    }
+
+    @Override
+    public Expression optimize()
+    {
+        for(int i = 0; i < args.size(); i++)
+            args.set(i, args.get(i).optimize());
+        return this;
     }
 
     @Override
     public void compile(Emitter e)
     {
-        e.emitPush("$ra");
+        e.emitPush(Register.RA);
         for(Expression arg: args)
         {
             arg.compile(e);
-            e.emitPush("$v0");
+            e.emitPush(Register.V0);
         }
-        //e.emit("li $v0, 0");
-        e.emitPush("$v0");
-        e.emit("jal proc" + name);
-        e.emitPop("$v0");
-        for (int i = 0; i < args.size(); i++)
-            e.emitPop("$v0");
-        e.emitPop("$ra");
+        e.emit(MipsOpcode.LI, "the return value starts at 0", Register.V0, new Immediate(0));
+        e.emitPush(Register.V0);
+        e.emit(MipsOpcode.JAL, new Label("proc" + name));
+        e.emitPop(Register.V0);
+        e.emitDiscard(args.size());
+        e.emitPop(Register.RA);
+    }
+
+    @Override
+    public Expression substitute(Map<String, Expression> bindings)
+    {
+        List<Expression> copies = new ArrayList<Expression>();
+        for(Expression arg: args)
+            copies.add(arg.substitute(bindings));
+        return new ProcedureCall(name, copies);
+    }
+
+    @Override
+    public int size()
+    {
+        int size = 1;
+        for(Expression arg: args)
+            size += arg.size();
+        return size;
+    }
+
+    @Override
+    public void names(Set<String> names)
+    {
+        for(Expression arg: args)
+            arg.names(names);
+    }
+
+    @Override
+    public void callees(Set<String> callees)
+    {
+        callees.add(name);
+        for(Expression arg: args)
+            arg.callees(callees);
+    }
+
+    /**
+     * Inlines calls in the arguments, then asks the Inliner to replace this
+     * call by the called procedure's result expression.
+     * @param inliner the Inliner
+     * @return the inlined expression, or this ProcedureCall
+     */
+    @Override
+    public Expression inline(Inliner inliner)
+    {
+        for(int i = 0; i < args.size(); i++)
+            args.set(i, args.get(i).inline(inliner));
+        return inliner.inline(this);
+    }
+
+    @Override
+    public boolean hasCall()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean canFail()
+    {
+        return true;
+    }
+
+    /**
+     * Compiles this ProcedureCall into a register, saving every other
+     * allocated register on the stack around the call (with one adjustment
+     * of $sp each way) since the called procedure is free to use all of them.
+     * @param e the emitter
+     * @param reg the register that receives the return value
+     */
+    @Override
+    public void compileTo(Emitter e, Register reg)
+    {
+        List<Register> live = e.getLiveRegisters();
+        live.remove(reg);
+        e.emitPushAll(live);
+        compile(e);
+        e.emitPopAll(live);
+        e.emit(MipsOpcode.MOVE, () -> "moves v0 to " + reg.getName(), reg, Register.V0);
+    }
+
+    @Override
+    public void compile(Bytecode code)
+    {
+        for(Expression arg: args)
+            arg.compile(code);
+        code.emitCall(name, args.size());
     }
 }
@@ -0,0 +1,117 @@
+package ast;
+
+import emitter.Emitter;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The ProcedureCompiler class compiles a Program's procedures to MIPS,
+ * each into memory with a child Emitter of its own, either one after
+ * another or as a fork/join task that splits the procedures between the
+ * threads of a ForkJoinPool. A procedure's labels start with its own
+ * entry label (as in procsq_endIf1), and each procedure's code depends on
+ * nothing but the procedure, so the code is the same either way. In
+ * parallel, the child Emitters are stored by the procedures' positions so
+ * that they can be written out in the order the procedures were declared.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class ProcedureCompiler extends RecursiveAction
+{
+    private static final long serialVersionUID = 1L;
+    private static final int THRESHOLD = 4;
+
+    private List<ProcedureDeclaration> procDecList;
+    private Emitter parent;
+    private Emitter[] children;
+    private int from;
+    private int to;
+
+    /**
+     * Constructor for a ProcedureCompiler that compiles every procedure.
+     * @param procDecList the procedures
+     * @param parent the Emitter whose settings the child Emitters copy
+     */
+    public ProcedureCompiler(List<ProcedureDeclaration> procDecList, Emitter parent)
+    {
+        this(procDecList, parent, new Emitter[procDecList.size()], 0, procDecList.size());
+    }
+
+    /**
+     * Constructor for a ProcedureCompiler that compiles some of the
+     * procedures into a shared array of child Emitters.
+     * @param procDecList the procedures
+     * @param parent the Emitter whose settings the child Emitters copy
+     * @param children receives the child Emitter of each procedure
+     * @param from the position of the first procedure to compile
+     * @param to the position after the last procedure to compile
+     */
+    private ProcedureCompiler(List<ProcedureDeclaration> procDecList, Emitter parent,
+                              Emitter[] children, int from, int to)
+    {
+        this.procDecList = procDecList;
+        this.parent = parent;
+        this.children = children;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Compiles the procedures on the current thread, splitting them in half
+     * and compiling the halves as separate tasks while there are more than
+     * a few of them.
+     */
+    @Override
+    protected void compute()
+    {
+        if(to - from <= THRESHOLD)
+        {
+            for(int i = from; i < to; i++)
+                compile(i);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ProcedureCompiler(procDecList, parent, children, from, middle),
+                new ProcedureCompiler(procDecList, parent, children, middle, to));
+    }
+
+    /**
+     * Compiles every procedure on the current thread, in order, writing
+     * each one's code to the parent Emitter as soon as it is compiled, so
+     * that no more than one procedure's code is kept in memory at a time.
+     */
+    public void compileAndEmit()
+    {
+        for(int i = from; i < to; i++)
+        {
+            compile(i);
+            parent.emitChild(children[i]);
+            children[i] = null;
+        }
+    }
+
+    /**
+     * Compiles one procedure into memory with a child Emitter of its own.
+     * @param index the position of the procedure
+     */
+    private void compile(int index)
+    {
+        ProcedureDeclaration procDec = procDecList.get(index);
+        Emitter child = parent.createChild("proc" + procDec.getName() + "_");
+        procDec.compile(child);
+        child.flush();
+        children[index] = child;
+    }
+
+    /**
+     * Writes the code of every compiled procedure to the parent Emitter, in
+     * the order the procedures were declared.
+     */
+    public void emitAll()
+    {
+        for(Emitter child: children)
+            parent.emitChild(child);
+    }
+}
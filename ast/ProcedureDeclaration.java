@@ -1,8 +1,14 @@
 package ast;
-import emitter.Emitter;
+import vm.*;
+import emitter.*;
 
 import environment.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The ProcedureDeclaration class is used to define a
@@ -18,6 +24,10 @@ public class ProcedureDeclaration extends Statement
     private Statement statement;
     private List<String> params;
     private List<String> locVars;
+    private int frameSize;
+    private int returnSlot;
+    private boolean hasTailCall;
+    private MemoCache memoCache;
 
     /**
      * Constructor for a ProcedureDeclaration object.
@@ -35,12 +45,227 @@ public class ProcedureDeclaration extends Statement
     }
 
     /**
-     * Defines this Procedure in the appropriate Environment.
+     * Does nothing, since calls of this Procedure are bound to it when the
+     * Program is resolved rather than looked up in an Environment.
      * @param env the environment
      */
     public void exec(Environment env)
     {
-        env.setProcedure(name, this);
+    }
+
+    /**
+     * Resolves the body of this Procedure in a new Scope whose frame holds
+     * the parameters (in order), then the return value, then the local
+     * variables. A parameter with the Procedure's own name shares its slot
+     * with the return value.
+     * @param scope the global scope
+     */
+    public void resolve(Scope scope)
+    {
+        Scope procScope = new Scope(scope);
+        for(String param: params)
+            procScope.declare(param);
+        returnSlot = procScope.declare(name);
+        for(String locVar: locVars)
+            procScope.declare(locVar);
+        statement.resolve(procScope);
+        frameSize = procScope.size();
+    }
+
+    /**
+     * Simplifies the body of this Procedure and turns its tail calls into
+     * a loop. The Program must be resolved again afterwards, since the loop
+     * adds local variables.
+     * @return this ProcedureDeclaration
+     */
+    @Override
+    public Statement optimize()
+    {
+        statement = statement.optimize();
+        eliminateTailCalls();
+        return this;
+    }
+
+    /**
+     * Makes a copy of this Procedure in which the global variables that are
+     * bound are replaced in the body. Names that the Procedure declares
+     * itself (its parameters, local variables and return value) hide the
+     * bindings.
+     * @param bindings maps variable names to expressions
+     * @return the copy, which has to be resolved before it is used
+     */
+    @Override
+    public Statement substitute(Map<String, Expression> bindings)
+    {
+        Map<String, Expression> globals = new HashMap<String, Expression>(bindings);
+        globals.keySet().removeAll(params);
+        globals.keySet().removeAll(locVars);
+        globals.remove(name);
+        return new ProcedureDeclaration(name, statement.substitute(globals),
+                new ArrayList<String>(params), new ArrayList<String>(locVars));
+    }
+
+    /**
+     * Inlines the calls in the body of this Procedure that the Inliner
+     * allows.
+     * @param inliner the Inliner
+     * @return this ProcedureDeclaration
+     */
+    @Override
+    public Statement inline(Inliner inliner)
+    {
+        inliner.setCaller(this);
+        statement = statement.inline(inliner);
+        inliner.setCaller(null);
+        return this;
+    }
+
+    /**
+     * Turns a call of this Procedure to itself in tail position into a
+     * jump back to the start of the body, so that such recursion runs in
+     * constant stack space. Since there is no ELSE, a body has at most one
+     * statement in tail position. The body becomes
+     *     _again := 1;
+     *     WHILE _again <> 0 DO BEGIN _again := 0; body END;
+     * and the tail call name := name(args) becomes assignments that start a
+     * fresh frame (the parameters get the arguments, the locals and the
+     * return value get 0) followed by _again := 1. Only a call whose value
+     * becomes the return value is rewritten: the value of the last call is
+     * then passed straight back through every caller, so the loop leaves
+     * the same return value and nothing else to undo.
+     */
+    private void eliminateTailCalls()
+    {
+        hasTailCall = false;
+        Statement body = statement.eliminateTailCalls(this);
+        if(! hasTailCall)
+            return;
+        List<Statement> loop = new ArrayList<Statement>();
+        loop.add(assign("_again", 0));
+        loop.add(body);
+        List<Statement> stmts = new ArrayList<Statement>();
+        stmts.add(assign("_again", 1));
+        stmts.add(new While(test("_again", Relop.NOT_EQUAL, 0), new Block(loop)));
+        locVars.add("_again");
+        for(int i = 0; i < params.size(); i++)
+            locVars.add("_arg" + i);
+        statement = new Block(stmts);
+    }
+
+    /**
+     * Builds the statements that replace a call of this Procedure to itself
+     * in tail position, name := name(args). Called by the Assignment that
+     * makes the call while tail calls are being eliminated.
+     * @param args the arguments of the call
+     * @return the statement that replaces the Assignment
+     */
+    public Statement tailCall(List<Expression> args)
+    {
+        hasTailCall = true;
+        List<Statement> stmts = new ArrayList<Statement>();
+        for(int i = 0; i < args.size(); i++)
+            stmts.add(new Assignment("_arg" + i, args.get(i)));
+        for(int i = 0; i < params.size(); i++)
+            stmts.add(new Assignment(params.get(i), new Variable("_arg" + i)));
+        for(String locVar: locVars)
+            stmts.add(assign(locVar, 0));
+        stmts.add(assign(name, 0));
+        stmts.add(assign("_again", 1));
+        return new Block(stmts);
+    }
+
+    /**
+     * Builds an Assignment of a constant.
+     * @param var the variable
+     * @param value the constant
+     * @return the Assignment var := value
+     */
+    private static Assignment assign(String var, int value)
+    {
+        return new Assignment(var, new Number(value));
+    }
+
+    /**
+     * Builds a Condition comparing a variable with a constant.
+     * @param var the variable
+     * @param relop the comparison
+     * @param value the constant
+     * @return the Condition
+     */
+    private static Condition test(String var, Relop relop, int value)
+    {
+        return new Condition(new Variable(var), new Number(value), relop);
+    }
+
+    /**
+     * Determines if the body of this Procedure, apart from the procedures it
+     * calls, depends on nothing but the arguments and changes nothing but
+     * its own frame: it uses no global variables and has no WRITELN.
+     * @return true if the body reads and writes only parameters, local
+     *         variables and the return value and prints nothing;
+     *         otherwise, false
+     */
+    public boolean isLocallyPure()
+    {
+        if(statement.hasWriteln())
+            return false;
+        Set<String> names = new HashSet<String>();
+        statement.names(names);
+        for(String var: names)
+            if(! var.equals(name) && ! params.contains(var) && ! locVars.contains(var))
+                return false;
+        return true;
+    }
+
+    /**
+     * Gives the names of the procedures that the body of this Procedure
+     * calls.
+     * @return the set of procedure names
+     */
+    public Set<String> getCallees()
+    {
+        Set<String> callees = new HashSet<String>();
+        statement.callees(callees);
+        return callees;
+    }
+
+    /**
+     * Gives the cache of this Procedure's return values, which exists only
+     * if the Procedure is pure and memoization is on.
+     * @return the MemoCache, or null if calls are not memoized
+     */
+    public MemoCache getMemoCache()
+    {
+        return memoCache;
+    }
+
+    /**
+     * Sets the cache of this Procedure's return values. Called by the
+     * Program once it has found which procedures are pure.
+     * @param memoCache the MemoCache, or null to stop memoizing calls
+     */
+    public void setMemoCache(MemoCache memoCache)
+    {
+        this.memoCache = memoCache;
+    }
+
+    /**
+     * Gives the number of variable slots in a frame for this Procedure.
+     * @return the frame size
+     */
+    public int getFrameSize()
+    {
+        return frameSize;
+    }
+
+    /**
+     * Gives the frame slot that holds this Procedure's return value, which
+     * is a parameter's slot if the parameter has the Procedure's name.
+     * @return the return value's slot
+     */
+    public int getReturnSlot()
+    {
+        return returnSlot;
     }
 
     /**
@@ -76,23 +301,38 @@ public class ProcedureDeclaration extends Statement
         return name;
     }
 
+    /**
+     * Compiles this Procedure to MIPS. The caller has already pushed the
+     * arguments and a slot for the return value; the Procedure pushes its
+     * local variables (all 0) and removes them again before returning.
+     * @param e the emitter
+     */
     @Override
     public void compile(Emitter e)
     {
-        //e.emit("li $v0, 0");
-        //e.emitPush("$v0");
+        e.emitLabel("proc" + name);
+        if(! locVars.isEmpty())
+            e.emit(MipsOpcode.LI, "local variables start at 0", Register.V0, new Immediate(0));
+        for(String locVar: locVars)
+            e.emitPush(Register.V0);
         e.setProcedureContext(this);
-        e.emit("proc" + name + ":");
-        //for(String param: params)
-        //{
-            //e.emit("li $v0, 0");
-            //e.emitPush("$v0");
-        //}
         statement.compile(e);
-        //for (String param: params)
-            //e.emitPop("$v0");
-        //e.emitPop("$v0");
-        e.emit("jr $ra");
         e.clearProcedureContext();
+        e.emitDiscard(locVars.size());
+        e.emit(MipsOpcode.JR, Register.RA);
+    }
+
+    @Override
+    public void compile(Bytecode code)
+    {
+        code.beginProcedure(name, params.size(), frameSize, returnSlot);
+        if(returnSlot < params.size())
+        {
+            // the return value starts at 0 even though its slot holds an argument
+            code.emit(Opcode.PUSH, 0);
+            code.emit(Opcode.STORE_LOCAL, returnSlot);
+        }
+        statement.compile(code);
+        code.endProcedure();
     }
 }
@@ -1,8 +1,14 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The Program class is used to define PASCAL Programs,
@@ -16,6 +22,8 @@ public class Program
     private List<VariableDeclaration> vars;
     private List<ProcedureDeclaration> procDecList;
     private Statement statement;
+    private int globalFrameSize;
+    private int memoCapacity;
 
     /**
      *
@@ -31,6 +39,152 @@ public class Program
         this.statement = statement;
     }
 
+    /**
+     * Resolves every variable in this Program to a (depth, slot) pair and
+     * every ProcedureCall to its ProcedureDeclaration so that running it
+     * needs no name lookups, and finds the procedures whose calls exec()
+     * can memoize if memoization is on. Called once by the Parser.
+     */
+    public void resolve()
+    {
+        Scope global = new Scope();
+        for(ProcedureDeclaration procDec: procDecList)
+            global.declareProcedure(procDec);
+        for(VariableDeclaration dec: vars)
+            dec.resolve(global);
+        for(ProcedureDeclaration procDec: procDecList)
+            procDec.resolve(global);
+        statement.resolve(global);
+        globalFrameSize = global.size();
+        findPureProcedures();
+    }
+
+    /**
+     * Finds the pure procedures, which use no global variables, print
+     * nothing and call only pure procedures, so that their return values
+     * depend on nothing but their arguments, and gives each of them an
+     * empty MemoCache. A procedure starts out pure if its own body is
+     * (see ProcedureDeclaration.isLocallyPure) and stops being pure when it
+     * calls a procedure that is not, until nothing changes; so procedures
+     * that call each other recursively are pure unless one of them is not.
+     */
+    private void findPureProcedures()
+    {
+        Map<String, ProcedureDeclaration> procedures = new HashMap<String, ProcedureDeclaration>();
+        for(ProcedureDeclaration procDec: procDecList)
+            procedures.put(procDec.getName(), procDec);
+        Set<String> pure = new HashSet<String>();
+        for(ProcedureDeclaration procDec: procedures.values())
+            if(procDec.isLocallyPure())
+                pure.add(procDec.getName());
+        boolean changed;
+        do
+        {
+            changed = false;
+            for(ProcedureDeclaration procDec: procedures.values())
+                if(pure.contains(procDec.getName()) && ! pure.containsAll(procDec.getCallees()))
+                {
+                    pure.remove(procDec.getName());
+                    changed = true;
+                }
+        }
+        while(changed);
+        for(ProcedureDeclaration procDec: procDecList)
+        {
+            boolean memoize = memoCapacity > 0 && pure.contains(procDec.getName());
+            procDec.setMemoCache(memoize ? new MemoCache(memoCapacity) : null);
+        }
+    }
+
+    /**
+     * Sets how many return values exec() remembers for each pure procedure,
+     * emptying every cache. Memoization is off (a capacity of 0) until this
+     * is called with a positive capacity, such as MemoCache.DEFAULT_CAPACITY;
+     * a capacity of 0 turns it off again.
+     * @param capacity the largest number of results kept per procedure
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public void setMemoCapacity(int capacity)
+    {
+        if(capacity < 0)
+            throw new IllegalArgumentException("Memo cache capacity must not be negative, not " +
+                    capacity);
+        memoCapacity = capacity;
+        findPureProcedures();
+    }
+
+    /**
+     * Gives the number of calls of pure procedures whose return values
+     * were found in their caches.
+     * @return the total number of memo cache hits
+     */
+    public long getMemoHits()
+    {
+        long hits = 0;
+        for(ProcedureDeclaration procDec: procDecList)
+            if(procDec.getMemoCache() != null)
+                hits += procDec.getMemoCache().getHits();
+        return hits;
+    }
+
+    /**
+     * Gives the number of calls of pure procedures whose bodies had to be
+     * run because their return values were not in their caches.
+     * @return the total number of memo cache misses
+     */
+    public long getMemoMisses()
+    {
+        long misses = 0;
+        for(ProcedureDeclaration procDec: procDecList)
+            if(procDec.getMemoCache() != null)
+                misses += procDec.getMemoCache().getMisses();
+        return misses;
+    }
+
+    /**
+     * Simplifies main and every procedure body: folds constant expressions,
+     * strength-reduces multiplications and divisions by powers of two,
+     * removes IF and WHILE statements whose conditions are constant and
+     * false, and turns procedures' calls to themselves in tail position
+     * (as in name := name(args)) into loops. Must be called after resolve() (which the Parser does)
+     * and before running or compiling; it is optional and changes no output.
+     */
+    public void optimize()
+    {
+        for(ProcedureDeclaration procDec: procDecList)
+            procDec.optimize();
+        statement = statement.optimize();
+        resolve();
+    }
+
+    /**
+     * Replaces calls of small procedures that make no calls themselves by
+     * the procedures' bodies (see Inliner), repeating until no more calls
+     * can be inlined, since a procedure whose calls have all been inlined
+     * may itself be inlined next. Must be called after resolve() (which the
+     * Parser does) and before running or compiling; it is optional and
+     * changes no output.
+     * @param maxSize the largest procedure body, in nodes, to inline
+     * @return the number of calls that were inlined
+     */
+    public int inline(int maxSize)
+    {
+        Inliner inliner = new Inliner(procDecList, maxSize);
+        int inlined;
+        do
+        {
+            inlined = inliner.getSitesInlined();
+            for(ProcedureDeclaration procDec: procDecList)
+                procDec.inline(inliner);
+            statement = statement.inline(inliner);
+        }
+        while(inliner.getSitesInlined() > inlined);
+        for(String hidden: inliner.getHiddenGlobals())
+            vars.add(new VariableDeclaration(hidden));
+        resolve();
+        return inliner.getSitesInlined();
+    }
+
     /**
      * Compiles a PASCAL program to MIPS.
      * @param outputFileName String denoting the name of the output file
@@ -38,25 +192,84 @@ public class Program
      */
     public void compile(String outputFileName)
     {
-        Emitter e = new Emitter(outputFileName);
-        e.emit("# This represents autogenerated MIPS code that was compiled");
-        e.emit("# from the PASCAL program in the given parserTest file.");
-        e.emit("# @author Saahas Kohli");
-        e.emit("# @version 1/18/2022");
-        e.emit(".data\t# all global variables");
+        compile(outputFileName, false);
+    }
+
+    /**
+     * Compiles a PASCAL program to MIPS, optionally evaluating expressions
+     * in allocated registers rather than on the stack.
+     * @param outputFileName String denoting the name of the output file
+     *                       to which MIPS code is written
+     * @param allocateRegisters true to allocate registers for expressions
+     */
+    public void compile(String outputFileName, boolean allocateRegisters)
+    {
+        Emitter e = new Emitter(outputFileName, allocateRegisters);
+        compile(e);
+        e.close();
+    }
+
+    /**
+     * Compiles a PASCAL program to MIPS with the given Emitter, which is
+     * left open.
+     * @param e the emitter
+     */
+    public void compile(Emitter e)
+    {
+        compile(e, null);
+    }
+
+    /**
+     * Compiles a PASCAL program to MIPS with the given Emitter, which is
+     * left open, compiling the procedures in parallel on a ForkJoinPool
+     * (see ProcedureCompiler). The MIPS code is the same whether or not a
+     * pool is used.
+     * @param e the emitter
+     * @param pool the pool that compiles the procedures, or null to compile
+     *             them one after another on this thread
+     */
+    public void compile(Emitter e, ForkJoinPool pool)
+    {
+        e.emitComment("This represents autogenerated MIPS code that was compiled");
+        e.emitComment("from the PASCAL program in the given parserTest file.");
+        e.emitComment("@author Saahas Kohli");
+        e.emitComment("@version 1/18/2022");
+        e.emit(".data", "all global variables");
         for(VariableDeclaration dec: vars)
             dec.compile(e);
         e.emit(".text");
         e.emit(".globl main");
-        e.emit("main:");
+        e.emitLabel("main");
 
         statement.compile(e);
 
-        e.emit("li $v0, 10");
-        e.emit("syscall\t# normal termination");
+        e.emit(MipsOpcode.LI, Register.V0, new Immediate(10));
+        e.emit(MipsOpcode.SYSCALL, "normal termination");
+
+        ProcedureCompiler compiler = new ProcedureCompiler(procDecList, e);
+        if(pool == null)
+            compiler.compileAndEmit();
+        else
+        {
+            pool.invoke(compiler);
+            compiler.emitAll();
+        }
+    }
 
+    /**
+     * Compiles this PASCAL Program to bytecode that can be run by a
+     * VirtualMachine instead of calling exec().
+     * @param code the (empty) bytecode to fill in; it is linked and ready
+     *             to run when this method returns
+     */
+    public void compile(Bytecode code)
+    {
+        code.setGlobalCount(globalFrameSize);
+        statement.compile(code);
+        code.emit(Opcode.HALT);
         for(ProcedureDeclaration procDec: procDecList)
-            procDec.compile(e);
+            procDec.compile(code);
+        code.link();
     }
 
     /**
@@ -65,8 +278,7 @@ public class Program
      */
     public void exec(Environment env)
     {
-        for(ProcedureDeclaration procDec: procDecList)
-            procDec.exec(env);
+        env.reserve(globalFrameSize);
         statement.exec(env);
     }
 }
@@ -0,0 +1,39 @@
+package ast;
+
+/**
+ * The Relop enum lists the relational operators a Condition can use to
+ * compare two values. The Parser picks the Relop from the token kind when
+ * it builds the Condition.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public enum Relop
+{
+    EQUAL, NOT_EQUAL, LESS, GREATER, LESS_EQUAL, GREATER_EQUAL;
+
+    /**
+     * Compares two values with this operator.
+     * @param value1 the left operand
+     * @param value2 the right operand
+     * @return true if the comparison holds; otherwise, false
+     */
+    public boolean test(int value1, int value2)
+    {
+        switch(this)
+        {
+            case EQUAL:
+                return value1 == value2;
+            case NOT_EQUAL:
+                return value1 != value2;
+            case LESS:
+                return value1 < value2;
+            case GREATER:
+                return value1 > value2;
+            case LESS_EQUAL:
+                return value1 <= value2;
+            default:
+                return value1 >= value2;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The Statement class is used to abstractly define
@@ -18,6 +21,101 @@ public abstract class Statement
      */
     public abstract void exec(Environment env);
 
+    /**
+     * Resolves every variable used in this statement to its frame slot.
+     * @param scope the scope in which this statement appears
+     */
+    public abstract void resolve(Scope scope);
+
+    /**
+     * Simplifies this statement and the expressions in it, removing code
+     * that can never run.
+     * @return the simplified statement (this one if nothing was replaced)
+     */
+    public Statement optimize()
+    {
+        return this;
+    }
+
+    /**
+     * Replaces every call of a procedure to itself that is made in tail
+     * position (as the whole right side of the last assignment the
+     * procedure runs, when that assignment sets the return value) with a
+     * jump back to the start of its body.
+     * @param procDec the procedure whose body this statement is in
+     * @return the rewritten statement (this one if nothing was replaced)
+     */
+    public Statement eliminateTailCalls(ProcedureDeclaration procDec)
+    {
+        return this;
+    }
+
+    /**
+     * Makes a copy of this statement in which every variable whose name is
+     * bound is replaced by a copy of the expression it is bound to. A bound
+     * variable that is assigned must be bound to a Variable.
+     * @param bindings maps variable names to expressions
+     * @return the copy, which has to be resolved before it is used
+     */
+    public abstract Statement substitute(Map<String, Expression> bindings);
+
+    /**
+     * Gives the number of nodes in this statement, as a measure of how much
+     * code it compiles to.
+     * @return the number of nodes
+     */
+    public int size()
+    {
+        return 1;
+    }
+
+    /**
+     * Adds the name of every variable this statement reads or assigns to
+     * a set.
+     * @param names the set of names
+     */
+    public void names(Set<String> names)
+    {
+    }
+
+    /**
+     * Adds the name of every procedure this statement calls to a set.
+     * @param callees the set of procedure names
+     */
+    public void callees(Set<String> callees)
+    {
+    }
+
+    /**
+     * Determines if this statement contains a WRITELN.
+     * @return true if something is printed; otherwise, false
+     */
+    public boolean hasWriteln()
+    {
+        return false;
+    }
+
+    /**
+     * Determines if this statement contains a ProcedureCall.
+     * @return true if a ProcedureCall is made; otherwise, false
+     */
+    public boolean hasCall()
+    {
+        return false;
+    }
+
+    /**
+     * Replaces calls in this statement by the bodies of the called
+     * procedures where the Inliner allows it.
+     * @param inliner the Inliner
+     * @return the statement with calls inlined (this one if nothing was
+     *         replaced)
+     */
+    public Statement inline(Inliner inliner)
+    {
+        return this;
+    }
+
     /**
      * Compiles the PASCAL Statement to MIPS.
      * @param e the emitter
@@ -26,4 +124,10 @@ public abstract class Statement
     {
         throw new RuntimeException("Implement me!!!");
     }
+
+    /**
+     * Compiles the PASCAL Statement to bytecode for the VirtualMachine.
+     * @param code the bytecode being built
+     */
+    public abstract void compile(Bytecode code);
 }
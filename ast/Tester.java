@@ -1,11 +1,11 @@
 package ast;
 
-import scanner.*;
-import parser.Parser;
-import environment.*;
+import driver.BatchCompiler;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The purpose of this Tester class is to test compilation
@@ -16,27 +16,51 @@ import java.io.FileNotFoundException;
  */
 public class Tester
 {
+    private static final int TEST_COUNT = 9;
+
     /**
-     * Compiles a PASCAL program to MIPS code,
-     * which is then written to an output file.
+     * Compiles the PASCAL parserTest programs to MIPS code with a
+     * BatchCompiler, which writes each one to an output file in the
+     * current directory and reports how long each took and which failed.
+     * Passing -r allocates registers for expressions, passing -O
+     * optimizes each Program before compiling it, passing -i inlines small
+     * procedures (after optimizing, if -O is also passed), passing -p runs the
+     * peephole optimizer over the MIPS output, passing -c leaves all
+     * comments out of the MIPS output, and passing -j compiles procedures
+     * in parallel (which gives the same output). Any other argument is
+     * reported with the usage, and nothing is compiled.
      * @param args functions from command line
-     * @throws FileNotFoundException if file path does not exist
      */
-    public static void main(String[] args) throws FileNotFoundException
+    public static void main(String[] args)
     {
-        for(int i = 1; i < 5; i++)
+        BatchCompiler compiler = new BatchCompiler(Runtime.getRuntime().availableProcessors());
+        compiler.setOutputDirectory(new File("."));
+        for(String arg: args)
         {
-            System.out.println("File " + i + ": ");
-            FileInputStream inStream;
-            inStream = new FileInputStream(("parserTests/parserTest" + i + ".txt"));
-            Scanner scanner = new Scanner(inStream);
-            Parser parser = new Parser(scanner);
-            // Environment env = new Environment();
-            Program program = parser.parseProgram();
-            program.compile("parserTest" + i + "_output.txt");
-            System.out.println("Compiled!");
+            if(arg.equals("-r"))
+                compiler.setAllocateRegisters(true);
+            else if(arg.equals("-O"))
+                compiler.setOptimize(true);
+            else if(arg.equals("-c"))
+                compiler.setCompact(true);
+            else if(arg.equals("-p"))
+                compiler.setPeephole(true);
+            else if(arg.equals("-i"))
+                compiler.setInline(true);
+            else if(arg.equals("-j"))
+                compiler.setProcedurePool(ForkJoinPool.commonPool());
+            else
+            {
+                System.err.println("Unknown flag " + arg);
+                System.err.println("Usage: java ast.Tester [-r] [-O] [-i] [-p] [-c] [-j]");
+                System.exit(2);
+            }
         }
+        List<File> sources = new ArrayList<File>();
+        for(int i = 1; i <= TEST_COUNT; i++)
+            sources.add(new File("parserTests/parserTest" + i + ".txt"));
+        if(BatchCompiler.run(sources, compiler) > 0)
+            System.exit(1);
         System.out.println("Done! Check MIPS output file.");
     }
 }
-
@@ -1,7 +1,11 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The Variable class is used to define a variable in PASCAL.
@@ -12,6 +16,8 @@ import emitter.*;
 public class Variable extends Expression
 {
     private String name;
+    private int depth;
+    private int slot;
 
     /**
      * Constructor for a Variable object.
@@ -29,7 +35,51 @@ public class Variable extends Expression
      */
     public int eval(Environment env)
     {
-        return env.getVariable(name);
+        return env.getVariable(depth, slot);
+    }
+
+    @Override
+    public void resolve(Scope scope)
+    {
+        depth = scope.getDepth(name);
+        slot = scope.getSlot(name, depth);
+    }
+
+    /**
+     * Gives the name of this Variable.
+     * @return the String identifier of the variable
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public Expression substitute(Map<String, Expression> bindings)
+    {
+        Expression bound = bindings.get(name);
+        if(bound == null)
+            return new Variable(name);
+        return bound.substitute(Collections.<String, Expression>emptyMap());
+    }
+
+    @Override
+    public void names(Set<String> names)
+    {
+        names.add(name);
+    }
+
+    /**
+     * Determines if no procedure call can change this Variable, which is
+     * the case for the local variables and parameters of the procedure
+     * being compiled, since no other procedure can see them.
+     * @param e the emitter
+     * @return true if this Variable is local; otherwise, false
+     */
+    @Override
+    public boolean isUnchangedByCalls(Emitter e)
+    {
+        return e.isLocalVariable(name);
     }
 
     @Override
@@ -37,10 +87,31 @@ public class Variable extends Expression
     {
         if(! e.isLocalVariable(name))
         {
-            e.emit("la $t0, var" + name + "\t# loads address of var" + name + " to t0");
-            e.emit("lw $v0, ($t0)\t# loads the word referenced by t0 into v0");
+            e.emit(MipsOpcode.LA, () -> "loads address of var" + name + " to t0", Register.T0,
+                    new Label("var" + name));
+            e.emit(MipsOpcode.LW, "loads the word referenced by t0 into v0", Register.V0,
+                    new Address(Register.T0));
         }
         else
-            e.emit("lw $v0 " + e.getOffset(name) + "($sp)");
+            e.emit(MipsOpcode.LW, Register.V0, new Address(e.getOffset(name), Register.SP));
+    }
+
+    @Override
+    public void compileTo(Emitter e, Register reg)
+    {
+        if(! e.isLocalVariable(name))
+            e.emit(MipsOpcode.LW, () -> "loads var" + name + " into " + reg.getName(), reg,
+                    new Label("var" + name));
+        else
+            e.emit(MipsOpcode.LW, reg, new Address(e.getOffset(name), Register.SP));
+    }
+
+    @Override
+    public void compile(Bytecode code)
+    {
+        if(code.inProcedure() && depth == 0)
+            code.emit(Opcode.LOAD_LOCAL, slot);
+        else
+            code.emit(Opcode.LOAD_GLOBAL, slot);
     }
 }
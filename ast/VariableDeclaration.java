@@ -1,7 +1,9 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.Map;
 
 /**
  * The VariableDeclaration class is used to declare global variables
@@ -13,6 +15,7 @@ import emitter.*;
 public class VariableDeclaration extends Statement
 {
     private String var;
+    private int slot;
 
     /**
      * Constructs a VariableDeclaration object.
@@ -30,7 +33,20 @@ public class VariableDeclaration extends Statement
      */
     public void exec(Environment env)
     {
-        env.setVariable(var, 0);
+        env.setVariable(0, slot, 0);
+    }
+
+    @Override
+    public void resolve(Scope scope)
+    {
+        slot = scope.declare(var);
+    }
+
+    @Override
+    public Statement substitute(Map<String, Expression> bindings)
+    {
+        Expression target = bindings.get(var);
+        return new VariableDeclaration(target == null ? var : ((Variable) target).getName());
     }
 
     @Override
@@ -38,5 +54,10 @@ public class VariableDeclaration extends Statement
     {
         e.emit("\tvar" + var + ":  .word  " + 0);
     }
-}
 
+    @Override
+    public void compile(Bytecode code)
+    {
+        // globals start at 0 in the VirtualMachine, so nothing is emitted
+    }
+}
@@ -1,6 +1,10 @@
 package ast;
 
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
 import environment.*;
+import vm.*;
 import emitter.*;
 
 /**
@@ -35,16 +39,96 @@ public class While extends Statement
             condStmt.exec(env);
     }
 
+    @Override
+    public void resolve(Scope scope)
+    {
+        cond.resolve(scope);
+        condStmt.resolve(scope);
+    }
+
+    /**
+     * Simplifies the condition and the statement. A WHILE whose condition
+     * is constant and false can never run, so it is replaced by an empty
+     * Block.
+     * @return the simplified statement
+     */
+    @Override
+    public Statement optimize()
+    {
+        cond = cond.optimize();
+        condStmt = condStmt.optimize();
+        if(cond.isAlwaysFalse())
+            return new Block(new ArrayList<Statement>());
+        return this;
+    }
+
+    @Override
+    public Statement substitute(Map<String, Expression> bindings)
+    {
+        return new While(cond.substitute(bindings), condStmt.substitute(bindings));
+    }
+
+    @Override
+    public int size()
+    {
+        return 1 + cond.size() + condStmt.size();
+    }
+
+    @Override
+    public void names(Set<String> names)
+    {
+        cond.names(names);
+        condStmt.names(names);
+    }
+
+    @Override
+    public void callees(Set<String> callees)
+    {
+        cond.callees(callees);
+        condStmt.callees(callees);
+    }
+
+    @Override
+    public boolean hasWriteln()
+    {
+        return condStmt.hasWriteln();
+    }
+
+    @Override
+    public boolean hasCall()
+    {
+        return cond.hasCall() || condStmt.hasCall();
+    }
+
+    @Override
+    public Statement inline(Inliner inliner)
+    {
+        cond = cond.inline(inliner);
+        condStmt = condStmt.inline(inliner);
+        return this;
+    }
+
     @Override
     public void compile(Emitter e)
     {
-        String loopLabel = "while" + e.nextLabelID();
-        String branchLabel = "endwhile" + e.nextLabelID();
-        e.emit(loopLabel + ":");
+        String loopLabel = e.nextLabel("while");
+        String branchLabel = e.nextLabel("endwhile");
+        e.emitLabel(loopLabel);
         cond.compile(e, branchLabel);
         condStmt.compile(e);
-        e.emit("j " + loopLabel + "\t# starts another iteration of the loop");
-        e.emit(branchLabel + ":");
+        e.emit(MipsOpcode.J, "starts another iteration of the loop", new Label(loopLabel));
+        e.emitLabel(branchLabel);
     }
-}
 
+    @Override
+    public void compile(Bytecode code)
+    {
+        int loopLabel = code.newLabel();
+        int endLabel = code.newLabel();
+        code.placeLabel(loopLabel);
+        cond.compile(code, endLabel);
+        condStmt.compile(code);
+        code.emitJump(Opcode.JUMP, loopLabel);
+        code.placeLabel(endLabel);
+    }
+}
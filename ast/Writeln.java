@@ -1,7 +1,10 @@
 package ast;
 
 import environment.*;
+import vm.*;
 import emitter.*;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The Writeln class is used to define a WRITELN statement
@@ -33,15 +36,91 @@ public class Writeln extends Statement
         System.out.println(exp.eval(env));
     }
 
+    @Override
+    public void resolve(Scope scope)
+    {
+        exp.resolve(scope);
+    }
+
+    @Override
+    public Statement optimize()
+    {
+        exp = exp.optimize();
+        return this;
+    }
+
+    @Override
+    public Statement substitute(Map<String, Expression> bindings)
+    {
+        return new Writeln(exp.substitute(bindings));
+    }
+
+    @Override
+    public int size()
+    {
+        return 1 + exp.size();
+    }
+
+    @Override
+    public void names(Set<String> names)
+    {
+        exp.names(names);
+    }
+
+    @Override
+    public void callees(Set<String> callees)
+    {
+        exp.callees(callees);
+    }
+
+    @Override
+    public boolean hasWriteln()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean hasCall()
+    {
+        return exp.hasCall();
+    }
+
+    /**
+     * Inlines calls in the expression. If the whole expression is a call
+     * that cannot be inlined as an expression, the call's body is inlined
+     * as statements instead.
+     * @param inliner the Inliner
+     * @return the inlined statement
+     */
+    @Override
+    public Statement inline(Inliner inliner)
+    {
+        exp = exp.inline(inliner);
+        if(exp instanceof ProcedureCall)
+        {
+            Statement inlined = inliner.inline((ProcedureCall) exp, result -> new Writeln(result));
+            if(inlined != null)
+                return inlined;
+        }
+        return this;
+    }
+
     @Override
     public void compile(Emitter e)
     {
         exp.compile(e);
-        e.emit("move $a0, $v0\t# sets a0 to v0");
-        e.emit("li $v0, 1");
-        e.emit("syscall\t# prints the integer in a0");
-        e.emit("li $v0, 11");
-        e.emit("li $a0, 10");
-        e.emit("syscall\t# prints character with ASCII value given by a0 (new line)");
+        e.emit(MipsOpcode.MOVE, "sets a0 to v0", Register.A0, Register.V0);
+        e.emit(MipsOpcode.LI, Register.V0, new Immediate(1));
+        e.emit(MipsOpcode.SYSCALL, "prints the integer in a0");
+        e.emit(MipsOpcode.LI, Register.V0, new Immediate(11));
+        e.emit(MipsOpcode.LI, Register.A0, new Immediate(10));
+        e.emit(MipsOpcode.SYSCALL, "prints character with ASCII value given by a0 (new line)");
+    }
+
+    @Override
+    public void compile(Bytecode code)
+    {
+        exp.compile(code);
+        code.emit(Opcode.PRINT);
     }
 }
@@ -0,0 +1,55 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+import ast.Program;
+import emitter.Emitter;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The EmitterBenchmark class measures how long it takes to compile a large
+ * program to MIPS, both into a file and into memory.
+ *
+ * Usage: java benchmark.EmitterBenchmark [number of lines]
+ * With no argument, a 100,000 line program is generated.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class EmitterBenchmark
+{
+    private static final int ITERATIONS = 5;
+
+    /**
+     * Generates and parses the program, then reports the compile time of
+     * each run to a file and to a discarding stream.
+     * @param args an optional number of lines to generate
+     * @throws IOException if a file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        Path source = Files.createTempFile("emitterBenchmark", ".txt");
+        Path output = Files.createTempFile("emitterBenchmark", ".asm");
+        source.toFile().deleteOnExit();
+        output.toFile().deleteOnExit();
+        ParserBenchmark.writeIdentifierHeavySource(source, lines);
+        Program program = new Parser(new Scanner(source)).parseProgram();
+        for(int i = 0; i < ITERATIONS; i++)
+        {
+            long start = System.nanoTime();
+            program.compile(output.toString());
+            double fileMillis = (System.nanoTime() - start) / 1e6;
+            start = System.nanoTime();
+            Emitter e = new Emitter(OutputStream.nullOutputStream());
+            program.compile(e);
+            e.close();
+            double memoryMillis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("Run %d: file %.1f ms (%.1f MB), memory %.1f ms%n", i + 1,
+                    fileMillis, Files.size(output) / (1024.0 * 1024.0), memoryMillis);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+import ast.Inliner;
+import ast.Program;
+import emitter.Emitter;
+import simulator.MipsSimulator;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * The InliningReport class compiles each parserTest file with and without
+ * inlining and reports how many calls were inlined, how many MIPS
+ * instructions each build contains and how many instructions each build
+ * runs on a MipsSimulator.
+ *
+ * Usage: java benchmark.InliningReport [max size] [parserTests directory]
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class InliningReport
+{
+    /**
+     * Compiles every parserTest file both ways and prints the counts.
+     * @param args an optional largest procedure body (in nodes) to inline,
+     *             and an optional path to the parserTests directory
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : Inliner.DEFAULT_MAX_SIZE;
+        File dir = new File(args.length > 1 ? args[1] : "ast/parserTests");
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".txt"));
+        Arrays.sort(files);
+        System.out.println("Inlining procedure bodies of at most " + maxSize + " nodes");
+        System.out.printf("%-18s %6s %16s %20s%n", "file", "sites", "instructions", "instructions run");
+        long[] total = new long[5];
+        for(File file: files)
+        {
+            long[] plain = measure(parse(file));
+            Program program = parse(file);
+            int sites = program.inline(maxSize);
+            long[] inlined = measure(program);
+            long[] row = {sites, plain[0], inlined[0], plain[1], inlined[1]};
+            for(int i = 0; i < row.length; i++)
+                total[i] += row[i];
+            print(file.getName(), row);
+        }
+        print("total", total);
+    }
+
+    /**
+     * Prints one row of the report.
+     * @param name the name of the row
+     * @param row the sites inlined, then the instructions and instructions
+     *            run without and with inlining
+     */
+    private static void print(String name, long[] row)
+    {
+        System.out.printf("%-18s %6d %7d -> %5d %9d -> %8d  (%.1f%% fewer run)%n", name,
+                row[0], row[1], row[2], row[3], row[4], 100.0 * (row[3] - row[4]) / row[3]);
+    }
+
+    /**
+     * Compiles a Program and runs it on a MipsSimulator.
+     * @param program the Program
+     * @return the number of instructions in the MIPS code and the number
+     *         of instructions run
+     */
+    private static long[] measure(Program program)
+    {
+        StringWriter mips = new StringWriter();
+        Emitter e = new Emitter(mips);
+        program.compile(e);
+        e.close();
+        int count = 0;
+        for(String line: mips.toString().split("\n"))
+        {
+            line = line.trim();
+            if(! line.isEmpty() && ! line.startsWith("#") && ! line.startsWith(".") &&
+                    ! line.endsWith(":") && ! line.contains(".word"))
+                count++;
+        }
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        long run = new MipsSimulator(mips.toString(), discard).run();
+        return new long[] {count, run};
+    }
+
+    /**
+     * Parses a PASCAL source file.
+     * @param file the file
+     * @return the Program
+     * @throws IOException if the file cannot be read
+     */
+    private static Program parse(File file) throws IOException
+    {
+        try(InputStream in = new FileInputStream(file))
+        {
+            return new Parser(new Scanner(in)).parseProgram();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+import ast.MemoCache;
+import ast.Program;
+import environment.Environment;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * The MemoizationBenchmark class times Program.exec() with and without
+ * memoized calls of pure procedures, on a naively recursive Fibonacci
+ * program and on each parserTest file, and reports how many calls were
+ * answered from the memo caches. Every cache is emptied before each run,
+ * so no run benefits from the one before. WRITELN output is discarded
+ * while timing.
+ *
+ * Usage: java benchmark.MemoizationBenchmark [n] [parserTests directory]
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class MemoizationBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    /**
+     * Times exec() both ways on fib(n) and on each parserTest file.
+     * @param args an optional Fibonacci argument (27 by default) and an
+     *             optional path to the parserTests directory
+     * @throws IOException if a parserTest file cannot be read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 27;
+        String fib =
+                "PROCEDURE fib(n);\n" +
+                "BEGIN\n" +
+                "   fib := n;\n" +
+                "   IF n > 1 THEN fib := fib(n - 1) + fib(n - 2);\n" +
+                "END;\n" +
+                "WRITELN(fib(" + n + "));\n" +
+                ".";
+        compare("fib(" + n + ")", new Parser(new Scanner(fib)).parseProgram());
+        File dir = new File(args.length > 1 ? args[1] : "ast/parserTests");
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".txt"));
+        Arrays.sort(files);
+        for(File file: files)
+        {
+            try(InputStream in = new FileInputStream(file))
+            {
+                compare(file.getName(), new Parser(new Scanner(in)).parseProgram());
+            }
+        }
+    }
+
+    /**
+     * Runs a Program with memoization off and on and prints the best timing
+     * of each over several rounds, with the cache hits and misses of a run.
+     * @param name the name to report for the Program
+     * @param program the Program to run
+     */
+    private static void compare(String name, Program program)
+    {
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        double plainMillis = Double.MAX_VALUE;
+        double memoMillis = Double.MAX_VALUE;
+        try
+        {
+            for(int round = 0; round < ROUNDS; round++)
+            {
+                program.setMemoCapacity(0);
+                long start = System.nanoTime();
+                program.exec(new Environment());
+                plainMillis = Math.min(plainMillis, (System.nanoTime() - start) / 1e6);
+                program.setMemoCapacity(MemoCache.DEFAULT_CAPACITY);
+                start = System.nanoTime();
+                program.exec(new Environment());
+                memoMillis = Math.min(memoMillis, (System.nanoTime() - start) / 1e6);
+            }
+        }
+        finally
+        {
+            System.setOut(stdout);
+        }
+        System.out.printf("%-18s plain %9.3f ms, memoized %9.3f ms (%8d hits, %6d misses)%n",
+                name, plainMillis, memoMillis, program.getMemoHits(), program.getMemoMisses());
+    }
+}
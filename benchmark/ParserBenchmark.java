@@ -0,0 +1,68 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The ParserBenchmark class measures how long the Parser takes to parse
+ * an identifier-heavy program, where most factors are variable references
+ * and procedure calls rather than numbers.
+ *
+ * Usage: java benchmark.ParserBenchmark [number of lines]
+ * With no argument, a 100,000 line program is generated.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class ParserBenchmark
+{
+    private static final int ITERATIONS = 5;
+
+    /**
+     * Generates the program and reports the parse time of each run.
+     * @param args an optional number of lines to generate
+     * @throws IOException if the program cannot be written or read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        Path path = Files.createTempFile("parserBenchmark", ".txt");
+        path.toFile().deleteOnExit();
+        writeIdentifierHeavySource(path, lines);
+        System.out.printf("Input: %d lines (%.1f MB)%n", lines,
+                Files.size(path) / (1024.0 * 1024.0));
+        for(int i = 0; i < ITERATIONS; i++)
+        {
+            long start = System.nanoTime();
+            new Parser(new Scanner(path)).parseProgram();
+            double millis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("Run %d: parsed in %.1f ms%n", i + 1, millis);
+        }
+    }
+
+    /**
+     * Writes a program whose main block consists of the given number of
+     * assignments, each reading several variables and calling a procedure.
+     * @param path the file to write
+     * @param lines the number of assignment lines in the main block
+     * @throws IOException if the file cannot be written
+     */
+    static void writeIdentifierHeavySource(Path path, int lines) throws IOException
+    {
+        try(Writer out = new BufferedWriter(new FileWriter(path.toFile())))
+        {
+            out.write("VAR alpha, beta, gamma, delta, result;\n");
+            out.write("PROCEDURE combine(left, right);\n");
+            out.write("   combine := left * right + left;\n");
+            out.write("BEGIN\n");
+            for(int i = 0; i < lines; i++)
+                out.write("    result := alpha * beta + combine(gamma, delta) - " +
+                        "(result + alpha) * gamma;\n");
+            out.write("END;\n.");
+        }
+    }
+}
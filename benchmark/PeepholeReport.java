@@ -0,0 +1,89 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+import ast.Program;
+import emitter.Emitter;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The PeepholeReport class compiles each parserTest file with and without
+ * the peephole optimizer, in both the stack and the register-allocating
+ * modes, and reports the instruction counts and how often each peephole
+ * pattern was applied.
+ *
+ * Usage: java benchmark.PeepholeReport [parserTests directory]
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class PeepholeReport
+{
+    /**
+     * Compiles every parserTest file in every mode and prints the counts.
+     * @param args an optional path to the parserTests directory
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        File dir = new File(args.length > 0 ? args[0] : "ast/parserTests");
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".txt"));
+        Arrays.sort(files);
+        for(boolean allocateRegisters: new boolean[] {false, true})
+        {
+            System.out.println(allocateRegisters ? "Register mode:" : "Stack mode:");
+            int before = 0;
+            int after = 0;
+            Map<String, Integer> totals = null;
+            for(File file: files)
+            {
+                Program program = new Parser(new Scanner(file.toPath())).parseProgram();
+                StringWriter plainOut = new StringWriter();
+                Emitter plain = new Emitter(plainOut, allocateRegisters);
+                program.compile(plain);
+                plain.close();
+                StringWriter optimizedOut = new StringWriter();
+                Emitter e = new Emitter(optimizedOut, allocateRegisters);
+                e.setPeephole(true);
+                program.compile(e);
+                e.close();
+                int plainCount = countInstructions(plainOut.toString());
+                int optimizedCount = countInstructions(optimizedOut.toString());
+                System.out.printf("  %-18s %5d -> %5d  %s%n", file.getName(), plainCount,
+                        optimizedCount,
+                        e.getPeephole().getHits());
+                before += plainCount;
+                after += optimizedCount;
+                if(totals == null)
+                    totals = e.getPeephole().getHits();
+                else
+                    for(Map.Entry<String, Integer> hit: e.getPeephole().getHits().entrySet())
+                        totals.merge(hit.getKey(), hit.getValue(), Integer::sum);
+            }
+            System.out.printf("  %-18s %5d -> %5d  %s (%.1f%% fewer)%n", "total", before, after,
+                    totals, 100.0 * (before - after) / before);
+        }
+    }
+
+    /**
+     * Counts the instructions in MIPS code, leaving out labels, directives,
+     * data declarations and comment lines.
+     * @param code the MIPS code
+     * @return the number of instructions
+     */
+    private static int countInstructions(String code)
+    {
+        int count = 0;
+        for(String line: code.split("\n"))
+        {
+            line = line.trim();
+            if(! line.isEmpty() && ! line.startsWith("#") && ! line.startsWith(".") &&
+                    ! line.endsWith(":") && ! line.contains(".word"))
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,96 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+import ast.Program;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The RegisterAllocationReport class compiles each parserTest file twice,
+ * once pushing every intermediate value and once allocating registers, and
+ * reports how many MIPS instructions (and how many of them loads and stores)
+ * each build contains.
+ *
+ * Usage: java benchmark.RegisterAllocationReport [parserTests directory]
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class RegisterAllocationReport
+{
+    /**
+     * Compiles every parserTest file in both modes and prints the counts.
+     * @param args an optional path to the parserTests directory
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        File dir = new File(args.length > 0 ? args[0] : "ast/parserTests");
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".txt"));
+        Arrays.sort(files);
+        int[] stackTotal = new int[2];
+        int[] registerTotal = new int[2];
+        System.out.printf("%-18s %14s %14s %8s%n", "file", "stack (mem)", "regs (mem)", "saved");
+        for(File file: files)
+        {
+            int[] stack = count(file, false);
+            int[] registers = count(file, true);
+            for(int i = 0; i < 2; i++)
+            {
+                stackTotal[i] += stack[i];
+                registerTotal[i] += registers[i];
+            }
+            print(file.getName(), stack, registers);
+        }
+        print("total", stackTotal, registerTotal);
+    }
+
+    /**
+     * Prints one row of the report.
+     * @param name the name of the row
+     * @param stack the counts for the stack build
+     * @param registers the counts for the register build
+     */
+    private static void print(String name, int[] stack, int[] registers)
+    {
+        System.out.printf("%-18s %8d (%3d) %8d (%3d) %7.1f%%%n", name, stack[0], stack[1],
+                registers[0], registers[1], 100.0 * (stack[0] - registers[0]) / stack[0]);
+    }
+
+    /**
+     * Compiles a file and counts the instructions in the output.
+     * @param file the PASCAL source file
+     * @param allocateRegisters true to allocate registers for expressions
+     * @return the number of instructions and the number of lw/sw instructions
+     * @throws IOException if a file cannot be read or written
+     */
+    private static int[] count(File file, boolean allocateRegisters) throws IOException
+    {
+        Program program = new Parser(new Scanner(file.toPath())).parseProgram();
+        Path output = Files.createTempFile("registerReport", ".asm");
+        try
+        {
+            program.compile(output.toString(), allocateRegisters);
+            int[] counts = new int[2];
+            for(String line: Files.readAllLines(output))
+            {
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#") || line.startsWith(".") ||
+                        line.endsWith(":") || line.contains(".word"))
+                    continue;
+                counts[0]++;
+                if(line.startsWith("lw ") || line.startsWith("sw "))
+                    counts[1]++;
+            }
+            return counts;
+        }
+        finally
+        {
+            Files.delete(output);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import scanner.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The ScannerBenchmark class measures scanning throughput (in MB/s) of the
+ * reader-based Scanner against the memory-mapped Scanner on the same file.
+ *
+ * Usage: java benchmark.ScannerBenchmark [source file | size in MB]
+ * With no argument, an 8 MB synthetic PASCAL file is generated.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class ScannerBenchmark
+{
+    private static final int ITERATIONS = 5;
+
+    /**
+     * Runs the benchmark on the given file, or on a generated file.
+     * @param args an optional source file path or size in megabytes
+     * @throws IOException if the source file cannot be read or written
+     * @throws ScanErrorException if the source file cannot be scanned
+     */
+    public static void main(String[] args) throws IOException, ScanErrorException
+    {
+        Path path;
+        if(args.length > 0 && Files.exists(Paths.get(args[0])))
+            path = Paths.get(args[0]);
+        else
+        {
+            int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+            path = Files.createTempFile("scannerBenchmark", ".txt");
+            path.toFile().deleteOnExit();
+            writeSyntheticSource(path, megabytes);
+        }
+        double megabytes = Files.size(path) / (1024.0 * 1024.0);
+        System.out.printf("Input: %s (%.1f MB)%n", path, megabytes);
+        for(int i = 0; i < ITERATIONS; i++)
+        {
+            long start = System.nanoTime();
+            int readerTokens;
+            try(InputStream in = new FileInputStream(path.toFile()))
+            {
+                readerTokens = countTokens(new Scanner(in));
+            }
+            double readerSeconds = (System.nanoTime() - start) / 1e9;
+            start = System.nanoTime();
+            int mappedTokens = countTokens(new Scanner(path));
+            double mappedSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Run %d: reader %.1f MB/s, mapped %.1f MB/s (%d/%d tokens)%n",
+                    i + 1, megabytes / readerSeconds, megabytes / mappedSeconds,
+                    readerTokens, mappedTokens);
+        }
+    }
+
+    /**
+     * Scans every token of the input.
+     * @param scanner the scanner to drain
+     * @return the number of tokens scanned
+     * @throws ScanErrorException if the input cannot be scanned
+     */
+    private static int countTokens(Scanner scanner) throws ScanErrorException
+    {
+        int count = 0;
+        while(scanner.scan().getKind() != Token.Kind.EOF)
+            count++;
+        return count;
+    }
+
+    /**
+     * Writes a PASCAL program of roughly the given size made of
+     * assignments and WRITELN statements over long identifiers.
+     * @param path the file to write
+     * @param megabytes the approximate size of the file
+     * @throws IOException if the file cannot be written
+     */
+    static void writeSyntheticSource(Path path, int megabytes) throws IOException
+    {
+        long target = megabytes * 1024L * 1024L;
+        try(Writer out = new BufferedWriter(new FileWriter(path.toFile())))
+        {
+            long written = 0;
+            out.write("BEGIN\n");
+            for(int i = 0; written < target; i++)
+            {
+                String line = "    accumulatorValue" + (i % 97) + " := accumulatorValue" +
+                        (i % 97) + " * 31 + (counterIndex - " + i + ") / 7; // step\n" +
+                        "    WRITELN(accumulatorValue" + (i % 97) + " mod 1000);\n";
+                out.write(line);
+                written += line.length();
+            }
+            out.write("END;\n.");
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+import ast.Program;
+import environment.Environment;
+import vm.*;
+
+import java.io.*;
+
+/**
+ * The VirtualMachineBenchmark class compares running Programs with the
+ * tree-walking Program.exec() against compiling them to Bytecode and running
+ * them on the VirtualMachine. Each Program is run once with each backend
+ * first, and the benchmark stops if they print different output; WRITELN
+ * output is discarded while timing.
+ *
+ * Usage: java benchmark.VirtualMachineBenchmark [parserTests directory]
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class VirtualMachineBenchmark
+{
+    private static final int ROUNDS = 8;
+
+    static final String LOOP_PROGRAM =
+            "VAR i, j, s;\n" +
+            "PROCEDURE step(a, b);\n" +
+            "   step := (a * 3 + b) mod 1000;\n" +
+            "BEGIN\n" +
+            "   i := 0;\n" +
+            "   s := 0;\n" +
+            "   WHILE i < 2000 DO\n" +
+            "   BEGIN\n" +
+            "      j := 0;\n" +
+            "      WHILE j < 1000 DO\n" +
+            "      BEGIN\n" +
+            "         s := step(s, j) + i - j / 3;\n" +
+            "         j := j + 1;\n" +
+            "      END;\n" +
+            "      i := i + 1;\n" +
+            "   END;\n" +
+            "   WRITELN(s);\n" +
+            "END;\n" +
+            ".";
+
+    /**
+     * Times both backends on each parserTest file and on a loop-heavy program.
+     * @param args an optional path to the parserTests directory
+     * @throws IOException if a parserTest file cannot be read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        String dir = args.length > 0 ? args[0] : "ast/parserTests";
+        for(int i = 1; i < 5; i++)
+        {
+            File file = new File(dir, "parserTest" + i + ".txt");
+            Program program;
+            try(InputStream in = new FileInputStream(file))
+            {
+                program = new Parser(new Scanner(in)).parseProgram();
+            }
+            compare(file.getName(), program, 20000);
+        }
+        compare("nested loops", new Parser(new Scanner(LOOP_PROGRAM)).parseProgram(), 1);
+    }
+
+    /**
+     * Runs a Program repeatedly with both backends and prints the best
+     * timing of each over several rounds. The Program is first run once
+     * with each backend, and what they print must be the same.
+     * @param name the name to report for the Program
+     * @param program the Program to run
+     * @param runs the number of times to run it with each backend
+     * @throws IllegalStateException if the backends print different output
+     */
+    private static void compare(String name, Program program, int runs)
+    {
+        PrintStream stdout = System.out;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        Bytecode code = new Bytecode();
+        program.compile(code);
+        ByteArrayOutputStream execOutput = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(execOutput, true));
+        try
+        {
+            program.exec(new Environment());
+        }
+        finally
+        {
+            System.setOut(stdout);
+        }
+        ByteArrayOutputStream vmOutput = new ByteArrayOutputStream();
+        new VirtualMachine(code, new PrintStream(vmOutput, true)).run();
+        if(! vmOutput.toString().equals(execOutput.toString()))
+            throw new IllegalStateException(name + ": exec printed " + execOutput +
+                    " but the vm printed " + vmOutput);
+        double execMillis = Double.MAX_VALUE;
+        double vmMillis = Double.MAX_VALUE;
+        System.setOut(discard);
+        try
+        {
+            for(int round = 0; round < ROUNDS; round++)
+            {
+                long start = System.nanoTime();
+                for(int i = 0; i < runs; i++)
+                    program.exec(new Environment());
+                execMillis = Math.min(execMillis, (System.nanoTime() - start) / 1e6);
+                start = System.nanoTime();
+                for(int i = 0; i < runs; i++)
+                    new VirtualMachine(code, discard).run();
+                vmMillis = Math.min(vmMillis, (System.nanoTime() - start) / 1e6);
+            }
+        }
+        finally
+        {
+            System.setOut(stdout);
+        }
+        System.out.printf("%-18s %6d runs: exec %9.1f ms, vm %9.1f ms, speedup %.2fx%n",
+                name, runs, execMillis, vmMillis, execMillis / vmMillis);
+    }
+}
@@ -0,0 +1,503 @@
+package driver;
+
+import scanner.*;
+import parser.Parser;
+import ast.Inliner;
+import ast.Program;
+import emitter.Emitter;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The BatchCompiler class compiles many PASCAL files to MIPS at once, on a
+ * fixed number of threads. Each file is parsed, optimized as asked and
+ * compiled into an output file of its own (named after the source, as in
+ * parserTest1_output.txt), which the Emitter writes as it goes. A file
+ * that cannot be read, parsed or compiled is reported as a failure, and
+ * its partial output is deleted, but the rest of the batch carries on. A
+ * file whose output would be that of an earlier file in the batch is
+ * reported as a failure without being compiled.
+ *
+ * A line is printed for each file as it finishes, with how long it took,
+ * followed by a summary with the batch's total wall time and every failure.
+ *
+ * Usage: java driver.BatchCompiler [-r] [-O] [-i] [-p] [-c] [-j] [-t threads]
+ *        [-d output directory] files or directories...
+ * The flags are those of ast.Tester, and -t sets the number of threads (by
+ * default, the number of processors). Directories are searched for .txt
+ * and .pas files, leaving out earlier outputs. The exit status is 1 if any
+ * file fails, and 2 (with nothing compiled) if the command line has an
+ * unknown flag or no files.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class BatchCompiler
+{
+    private static final String OUTPUT_SUFFIX = "_output.txt";
+    private static final List<String> FLAGS = Arrays.asList("-r", "-O", "-i", "-p", "-c", "-j");
+
+    /**
+     * A Result is what happened to one file of a batch.
+     */
+    public static class Result
+    {
+        private File source;
+        private File output;
+        private long nanos;
+        private Throwable error;
+
+        /**
+         * Constructor for a Result.
+         * @param source the PASCAL source file
+         * @param output the MIPS output file
+         * @param nanos how long the file took, in nanoseconds
+         * @param error why the file failed, or null if it was compiled
+         */
+        Result(File source, File output, long nanos, Throwable error)
+        {
+            this.source = source;
+            this.output = output;
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        /**
+         * Gives the source file.
+         * @return the PASCAL source file
+         */
+        public File getSource()
+        {
+            return source;
+        }
+
+        /**
+         * Gives the output file, which only holds this file's code if the
+         * file was compiled.
+         * @return the MIPS output file
+         */
+        public File getOutput()
+        {
+            return output;
+        }
+
+        /**
+         * Gives how long the file took to read, parse and compile.
+         * @return the wall time, in milliseconds
+         */
+        public double getMillis()
+        {
+            return nanos / 1e6;
+        }
+
+        /**
+         * Gives why the file failed.
+         * @return the exception or error, or null if the file was compiled
+         */
+        public Throwable getError()
+        {
+            return error;
+        }
+
+        /**
+         * Determines if the file was compiled.
+         * @return true if the file was compiled; false if it failed
+         */
+        public boolean isSuccess()
+        {
+            return error == null;
+        }
+    }
+
+    private int threads;
+    private File outputDirectory;
+    private boolean allocateRegisters;
+    private boolean optimize;
+    private boolean inline;
+    private boolean peephole;
+    private boolean compact;
+    private ForkJoinPool procedurePool;
+    private PrintStream log;
+
+    /**
+     * Constructor for a BatchCompiler that writes each output next to its
+     * source and reports nothing while compiling.
+     * @param threads the number of files compiled at once
+     */
+    public BatchCompiler(int threads)
+    {
+        if(threads < 1)
+            throw new IllegalArgumentException("Need at least one thread, not " + threads);
+        this.threads = threads;
+    }
+
+    /**
+     * Sets where the output files are written.
+     * @param outputDirectory the directory, or null to write each output
+     *                        next to its source
+     */
+    public void setOutputDirectory(File outputDirectory)
+    {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Turns register allocation (Tester's -r) on or off.
+     * @param allocateRegisters true to evaluate expressions in registers
+     */
+    public void setAllocateRegisters(boolean allocateRegisters)
+    {
+        this.allocateRegisters = allocateRegisters;
+    }
+
+    /**
+     * Turns AST optimization (Tester's -O) on or off.
+     * @param optimize true to optimize each Program before compiling it
+     */
+    public void setOptimize(boolean optimize)
+    {
+        this.optimize = optimize;
+    }
+
+    /**
+     * Turns inlining of small procedures (Tester's -i) on or off.
+     * @param inline true to inline small procedures
+     */
+    public void setInline(boolean inline)
+    {
+        this.inline = inline;
+    }
+
+    /**
+     * Turns peephole optimization (Tester's -p) on or off.
+     * @param peephole true to run the peephole optimizer
+     */
+    public void setPeephole(boolean peephole)
+    {
+        this.peephole = peephole;
+    }
+
+    /**
+     * Turns compact output (Tester's -c) on or off.
+     * @param compact true to leave comments out of the output
+     */
+    public void setCompact(boolean compact)
+    {
+        this.compact = compact;
+    }
+
+    /**
+     * Sets the pool that compiles the procedures of each file in parallel
+     * (Tester's -j).
+     * @param procedurePool the pool, or null to compile procedures one
+     *                      after another
+     */
+    public void setProcedurePool(ForkJoinPool procedurePool)
+    {
+        this.procedurePool = procedurePool;
+    }
+
+    /**
+     * Sets where a line is printed for each file as it finishes.
+     * @param log the stream, or null to print nothing
+     */
+    public void setLog(PrintStream log)
+    {
+        this.log = log;
+    }
+
+    /**
+     * Gives the output file for a source file: the source's name without
+     * its extension, followed by _output.txt.
+     * @param source the PASCAL source file
+     * @return the MIPS output file
+     */
+    public File getOutputFile(File source)
+    {
+        String name = source.getName();
+        int dot = name.lastIndexOf('.');
+        if(dot > 0)
+            name = name.substring(0, dot);
+        File dir = outputDirectory;
+        if(dir == null)
+            dir = source.getAbsoluteFile().getParentFile();
+        return new File(dir, name + OUTPUT_SUFFIX);
+    }
+
+    /**
+     * Compiles every file, several at once, and waits for all of them. Two
+     * sources with the same output file (foo.txt and foo.pas, or a/foo.txt
+     * and b/foo.txt with an output directory) would write over each other,
+     * so only the first of them is compiled; the others fail without
+     * touching the output.
+     * @param sources the PASCAL source files
+     * @return the Result of each file, in the order of the sources
+     */
+    public List<Result> compile(List<File> sources)
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            Map<Path, File> owners = new HashMap<Path, File>();
+            List<Future<Result>> futures = new ArrayList<Future<Result>>();
+            for(File source: sources)
+            {
+                File output = getOutputFile(source);
+                File owner = owners.putIfAbsent(output.toPath().toAbsolutePath().normalize(),
+                        source);
+                if(owner == null)
+                    futures.add(executor.submit(() -> compile(source)));
+                else
+                    futures.add(CompletableFuture.completedFuture(duplicate(source, output,
+                            owner)));
+            }
+            List<Result> results = new ArrayList<Result>();
+            for(Future<Result> future: futures)
+                results.add(join(future));
+            return results;
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Compiles one file into its output file, catching whatever goes wrong.
+     * @param source the PASCAL source file
+     * @return the Result
+     */
+    public Result compile(File source)
+    {
+        File output = getOutputFile(source);
+        long start = System.nanoTime();
+        Throwable error = null;
+        try
+        {
+            Program program = new Parser(new Scanner(source.toPath())).parseProgram();
+            if(optimize)
+                program.optimize();
+            if(inline)
+                program.inline(Inliner.DEFAULT_MAX_SIZE);
+            Emitter e = new Emitter(output.getPath(), allocateRegisters);
+            try
+            {
+                e.setCompact(compact);
+                e.setPeephole(peephole);
+                program.compile(e, procedurePool);
+            }
+            finally
+            {
+                e.close();
+            }
+        }
+        catch(Exception | StackOverflowError t)
+        {
+            // StackOverflowError is caught on purpose: the Parser, optimizer
+            // and Emitter all recurse over the source, so a deeply nested
+            // program can overflow this thread's stack. That fails only this
+            // file, since the stack has unwound by the time it is caught.
+            error = t;
+            output.delete();
+        }
+        Result result = new Result(source, output, System.nanoTime() - start, error);
+        if(log != null)
+            log.println(describe(result));
+        return result;
+    }
+
+    /**
+     * Fails a file whose output file belongs to another file of the batch.
+     * @param source the PASCAL source file
+     * @param output the MIPS output file
+     * @param owner the file that is compiled into the output file
+     * @return the Result, which is a failure
+     */
+    private Result duplicate(File source, File output, File owner)
+    {
+        Result result = new Result(source, output, 0, new IllegalArgumentException(
+                "Output " + output + " is already the output of " + owner));
+        if(log != null)
+            log.println(describe(result));
+        return result;
+    }
+
+    /**
+     * Waits for one file to be compiled.
+     * @param future the file's task
+     * @return the file's Result
+     */
+    private static Result join(Future<Result> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while compiling", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Describes a Result in one line.
+     * @param result the Result
+     * @return the file, how long it took and where its output went (or why
+     *         it failed)
+     */
+    private static String describe(Result result)
+    {
+        if(result.isSuccess())
+            return String.format("ok   %10.3f ms  %s -> %s", result.getMillis(),
+                    result.getSource(), result.getOutput());
+        return String.format("FAIL %10.3f ms  %s: %s", result.getMillis(), result.getSource(),
+                result.getError());
+    }
+
+    /**
+     * Adds the PASCAL source files named by a path to a list: the path
+     * itself if it is a file, or the .txt and .pas files in it (other than
+     * outputs) if it is a directory.
+     * @param path the file or directory
+     * @param sources the list the files are added to
+     */
+    public static void addSources(File path, List<File> sources)
+    {
+        if(! path.isDirectory())
+        {
+            sources.add(path);
+            return;
+        }
+        File[] files = path.listFiles((d, name) -> (name.endsWith(".txt") ||
+                name.endsWith(".pas")) && ! name.endsWith(OUTPUT_SUFFIX));
+        Arrays.sort(files);
+        sources.addAll(Arrays.asList(files));
+    }
+
+    /**
+     * Compiles a batch and prints each file's time, the total wall time and
+     * the failures.
+     * @param sources the PASCAL source files
+     * @param compiler the BatchCompiler, which prints each file's line to
+     *                 System.out unless it has been given a log already
+     * @return the number of files that failed
+     */
+    public static int run(List<File> sources, BatchCompiler compiler)
+    {
+        if(compiler.log == null)
+            compiler.setLog(System.out);
+        long start = System.nanoTime();
+        List<Result> results = compiler.compile(sources);
+        double wallMillis = (System.nanoTime() - start) / 1e6;
+        double fileMillis = 0;
+        List<Result> failures = new ArrayList<Result>();
+        for(Result result: results)
+        {
+            fileMillis += result.getMillis();
+            if(! result.isSuccess())
+                failures.add(result);
+        }
+        System.out.printf("%d files, %d compiled, %d failed in %.3f ms wall time " +
+                "(%.3f ms of file time on %d threads)%n", results.size(),
+                results.size() - failures.size(), failures.size(), wallMillis, fileMillis,
+                compiler.threads);
+        for(Result failure: failures)
+            System.out.println(describe(failure));
+        return failures.size();
+    }
+
+    /**
+     * Prints what went wrong with the command line and how to use it, and
+     * exits with status 2.
+     * @param problem what went wrong
+     */
+    private static void usage(String problem)
+    {
+        System.err.println(problem);
+        System.err.println("Usage: java driver.BatchCompiler [-r] [-O] [-i] [-p] [-c] [-j] " +
+                "[-t threads] [-d output directory] files or directories...");
+        System.exit(2);
+    }
+
+    /**
+     * Reads the value of -t.
+     * @param value the number of threads, as given on the command line
+     * @return the number of threads, which is at least 1
+     */
+    private static int parseThreads(String value)
+    {
+        try
+        {
+            int threads = Integer.parseInt(value);
+            if(threads >= 1)
+                return threads;
+        }
+        catch(NumberFormatException e)
+        {
+            // reported below
+        }
+        usage("Bad number of threads: " + value);
+        return 0;
+    }
+
+    /**
+     * Compiles the files and directories given on the command line. An
+     * unknown flag, a missing or bad value for -t or -d, or no files at all
+     * is reported with the usage, and nothing is compiled.
+     * @param args the options and paths described above
+     */
+    public static void main(String[] args)
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        File outputDirectory = null;
+        List<String> flags = new ArrayList<String>();
+        List<File> sources = new ArrayList<File>();
+        for(int i = 0; i < args.length; i++)
+        {
+            if((args[i].equals("-t") || args[i].equals("-d")) && i + 1 == args.length)
+                usage("Missing value for " + args[i]);
+            else if(args[i].equals("-t"))
+                threads = parseThreads(args[++i]);
+            else if(args[i].equals("-d"))
+                outputDirectory = new File(args[++i]);
+            else if(FLAGS.contains(args[i]))
+                flags.add(args[i]);
+            else if(args[i].startsWith("-"))
+                usage("Unknown flag " + args[i]);
+            else
+                addSources(new File(args[i]), sources);
+        }
+        if(sources.isEmpty())
+            usage("No files to compile");
+        if(outputDirectory != null)
+            outputDirectory.mkdirs();
+        BatchCompiler compiler = new BatchCompiler(threads);
+        compiler.setOutputDirectory(outputDirectory);
+        compiler.setAllocateRegisters(flags.contains("-r"));
+        compiler.setOptimize(flags.contains("-O"));
+        compiler.setInline(flags.contains("-i"));
+        compiler.setPeephole(flags.contains("-p"));
+        compiler.setCompact(flags.contains("-c"));
+        if(flags.contains("-j"))
+            compiler.setProcedurePool(ForkJoinPool.commonPool());
+        if(run(sources, compiler) > 0)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,81 @@
+package emitter;
+
+/**
+ * The Address class is a memory operand: a base register plus a constant
+ * byte offset, written as offset(base), or as (base) when no offset is given.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class Address implements Operand
+{
+    private int offset;
+    private Register base;
+    private boolean hasOffset;
+
+    /**
+     * Constructor for the Address held in a register.
+     * @param base the register holding the address
+     */
+    public Address(Register base)
+    {
+        this.base = base;
+        offset = 0;
+        hasOffset = false;
+    }
+
+    /**
+     * Constructor for an Address at an offset from a register.
+     * @param offset the number of bytes past the base address
+     * @param base the register holding the base address
+     */
+    public Address(int offset, Register base)
+    {
+        this.base = base;
+        this.offset = offset;
+        hasOffset = true;
+    }
+
+    /**
+     * Gives the base register.
+     * @return the register holding the base address
+     */
+    public Register getBase()
+    {
+        return base;
+    }
+
+    /**
+     * Gives the offset from the base register.
+     * @return the offset in bytes
+     */
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    @Override
+    public boolean uses(Register reg)
+    {
+        return base == reg;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof Address && ((Address) other).base == base &&
+                ((Address) other).offset == offset;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * base.hashCode() + offset;
+    }
+
+    @Override
+    public String toString()
+    {
+        return (hasOffset ? "" + offset : "") + "(" + base + ")";
+    }
+}
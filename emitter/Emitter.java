@@ -1,158 +1,629 @@
-package emitter;
-
-import java.io.*;
-import ast.ProcedureDeclaration;
-import java.util.List;
-
-/**
- * The Emitter class enables creating an output file
- * and writing to it with MIPS Assembly code.
- *
- * @author Saahas Kohli
- * @version 11/19/2021
- */
-public class Emitter
-{
-    private PrintWriter out;
-    private int nextLabelID;
-    private ProcedureDeclaration currProcDec;
-    private int excessStackHeight;
-
-	/**
-	 * Creates an emitter that writes to a new file with the given name.
-	 * @param outputFileName String denoting name of output file
-	 */
-    public Emitter(String outputFileName)
-    {
-        try
-        {
-            out = new PrintWriter(new FileWriter(outputFileName), true);
-        }
-        catch(IOException e)
-        {
-            throw new RuntimeException(e);
-        }
-        nextLabelID = 0;
-    }
-
-	/**
-	 * Provides an id number for the next MIPS label
-	 * (to ensure that all labels are different).
-	 * @return integer denoting the next label ID
-	 */
-    public int nextLabelID()
-    {
-        nextLabelID++;
-        return nextLabelID;
-    }
-
-	/**
-	 * Prints one line of code to file (with non-labels indented).
-	 * @param code line of code to be written to file
-	 */
-    public void emit(String code)
-    {
-        if (!code.endsWith(":") && !code.startsWith("#"))
-            code = "\t" + code;
-        out.println(code);
-    }
-
-	/**
-	 * Pushes the value of a given MIPS register onto
-	 * the stack.
-	 * @param reg String denoting the name of the MIPS
-	 * 	          register that is pushed onto the stack
-	 */
-    public void emitPush(String reg)
-    {
-        this.emit("subu $sp, $sp, 4\t# allocating 4 bytes of memory");
-        this.emit("sw " + reg + ", ($sp)\t# pushes " + reg + " onto the stack");
-    }
-
-	/**
-	 * Pops the top element of the stack onto a specified
-	 * MIPS register.
-	 * @param reg String denoting the name of the MIPS
-	 *            register where the popped value goes
-	 */
-    public void emitPop(String reg)
-    {
-        this.emit("lw " + reg + ", ($sp)\t# pops top element on stack onto " + reg);
-        this.emit("addu $sp, $sp, 4\t# removing the previously occupied 4 bytes of memory");
-    }
-
-    /**
-     * Sets the procedure context to the given ProcedureDeclaration.
-     * @param procDec new procedure context to be set
-     */
-    public void setProcedureContext(ProcedureDeclaration procDec)
-    {
-        currProcDec = procDec;
-        excessStackHeight = 0;
-    }
-
-    /**
-     * Clears the procedure context (to null).
-     */
-    public void clearProcedureContext()
-    {
-        currProcDec = null;
-    }
-
-    /**
-     * Determines if a given variable is local or global.
-     * @param varName the name of the variable whose locality is being checked
-     * @return true if the given variable is local to the ProcedureDeclaration;
-     *         otherwise, false
-     */
-    public boolean isLocalVariable(String varName)
-    {
-        if(currProcDec == null)
-            return false;
-        if(varName.equals(currProcDec.getName()))
-            return true;
-        List<String> paramList = currProcDec.getParams();
-        for(String param: paramList)
-            if(param.equals(varName))
-                return true;
-        List<String> locVars = currProcDec.getLocVars();
-        for(String locVar: locVars)
-            if(varName.equals(locVar))
-                return true;
-        return false;
-    }
-
-    /**
-     * Determines the positional offset of a certain variable from the top of the stack.
-     * @param localVarName name of variable whose offset is being found
-     * @return offset of varName in the stack if varName is defined; otherwise, -1
-     */
-    public int getOffset(String localVarName)
-    {
-        int offset = excessStackHeight;
-        for(int i = 0; i < currProcDec.getLocVars().size(); i++)
-        {
-            if(localVarName.equals(currProcDec.getLocVars().get(i)))
-                return offset;
-            offset += 4;
-        }
-        if (localVarName.equals(currProcDec.getName()))
-            return offset;
-        offset += 4;
-        for (int i = currProcDec.getParams().size() -1; i >= 0; i--)
-        {
-            if(localVarName.equals(currProcDec.getParams().get(i)))
-                return offset;
-            offset += 4;
-        }
-        return -1;
-    }
-
-	/**
-	 * Closes the file. Should be called after all calls to emit.
-	 */
-    public void close()
-    {
-        out.close();
-    }
+package emitter;
+
+import java.io.*;
+import ast.ProcedureDeclaration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The Emitter class enables creating an output file
+ * and writing to it with MIPS Assembly code.
+ *
+ * Output goes through a large buffer and is only written out when the
+ * buffer fills, when flush() is called or when the Emitter is closed.
+ * An Emitter can also write to any Writer or OutputStream, for example
+ * to compile into memory without touching the disk.
+ *
+ * Code is emitted as Instructions (a MipsOpcode and typed Operands) rather
+ * than as text, and only turned into MIPS text as it is written. With
+ * peephole optimization off, each Instruction is written as soon as it is
+ * emitted; with it on, the Emitter collects Instructions instead, and runs
+ * a PeepholeOptimizer over them before they are written out by flush() or
+ * close().
+ *
+ * In compact mode, the Emitter leaves out every comment. Comments that
+ * have to be built from several pieces are passed as a Supplier, so their
+ * strings are never concatenated when they will not be written.
+ *
+ * Labels made by nextLabel() are numbered per Emitter and can be given a
+ * namespace, so that each procedure can be compiled by its own child
+ * Emitter (see createChild), even on another thread, and the results
+ * spliced together with emitChild() give the same code in any order of
+ * compilation.
+ *
+ * An Emitter can also allocate registers, in which case expressions are
+ * evaluated into $t1-$t9 and $s0-$s7 instead of pushing every intermediate
+ * value onto the stack. $t0 is kept out of the pool as a scratch register
+ * for spills. Procedures save the registers they need around each call
+ * (including the $s registers), so no callee ever has to save any.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class Emitter
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String NEWLINE = System.lineSeparator();
+
+    private BufferedWriter out;
+    private StringBuilder memory;
+    private char[] transfer;
+    private int nextLabelID;
+    private String labelNamespace;
+    private Map<String, Integer> frameOffsets;
+    private int excessStackHeight;
+    private boolean allocateRegisters;
+    private boolean compact;
+    private List<Instruction> instructions;
+    private PeepholeOptimizer peephole;
+    private StringBuilder line;
+    private Deque<Register> freeRegisters;
+    private List<Register> liveRegisters;
+
+	/**
+	 * Creates an emitter that writes to a new file with the given name.
+	 * @param outputFileName String denoting name of output file
+	 */
+    public Emitter(String outputFileName)
+    {
+        this(outputFileName, false);
+    }
+
+	/**
+	 * Creates an emitter that writes to a new file with the given name.
+	 * @param outputFileName String denoting name of output file
+	 * @param allocateRegisters true if expressions should be evaluated in
+	 *                          allocated registers; false if every
+	 *                          intermediate value should be pushed
+	 */
+    public Emitter(String outputFileName, boolean allocateRegisters)
+    {
+        this(openFile(outputFileName), allocateRegisters);
+    }
+
+	/**
+	 * Creates an emitter that writes to the given Writer.
+	 * @param out the Writer that receives the MIPS code
+	 */
+    public Emitter(Writer out)
+    {
+        this(out, false);
+    }
+
+	/**
+	 * Creates an emitter that writes to the given OutputStream.
+	 * @param out the stream that receives the MIPS code
+	 */
+    public Emitter(OutputStream out)
+    {
+        this(new OutputStreamWriter(out), false);
+    }
+
+	/**
+	 * Creates an emitter that writes to the given Writer.
+	 * @param out the Writer that receives the MIPS code
+	 * @param allocateRegisters true if expressions should be evaluated in
+	 *                          allocated registers; false if every
+	 *                          intermediate value should be pushed
+	 */
+    public Emitter(Writer out, boolean allocateRegisters)
+    {
+        this(allocateRegisters);
+        this.out = new BufferedWriter(out, BUFFER_SIZE);
+    }
+
+	/**
+	 * Creates an emitter that keeps its MIPS code in memory, for a parent
+	 * Emitter to write out with emitChild().
+	 * @param allocateRegisters true if expressions should be evaluated in
+	 *                          allocated registers; false if every
+	 *                          intermediate value should be pushed
+	 */
+    private Emitter(boolean allocateRegisters)
+    {
+        line = new StringBuilder();
+        nextLabelID = 0;
+        labelNamespace = "";
+        this.allocateRegisters = allocateRegisters;
+        freeRegisters = new ArrayDeque<Register>();
+        for(Register reg: Register.values())
+            if(reg.compareTo(Register.T1) >= 0 && reg.compareTo(Register.S7) <= 0)
+                freeRegisters.addLast(reg);
+        liveRegisters = new ArrayList<Register>();
+    }
+
+    /**
+     * Turns compact mode, in which no comments are written, on or off.
+     * @param compact true to leave out comments; false to write them
+     */
+    public void setCompact(boolean compact)
+    {
+        this.compact = compact;
+    }
+
+    /**
+     * Turns peephole optimization of the emitted Instructions on or off.
+     * Instructions already collected are written out first.
+     * @param optimize true to run a PeepholeOptimizer before writing
+     */
+    public void setPeephole(boolean optimize)
+    {
+        flush();
+        if(optimize && peephole == null)
+        {
+            instructions = new ArrayList<Instruction>();
+            peephole = new PeepholeOptimizer();
+        }
+        else if(! optimize)
+        {
+            instructions = null;
+            peephole = null;
+        }
+    }
+
+    /**
+     * Gives the PeepholeOptimizer in use, whose hit counts cover everything
+     * written so far.
+     * @return the PeepholeOptimizer, or null if peephole optimization is off
+     */
+    public PeepholeOptimizer getPeephole()
+    {
+        return peephole;
+    }
+
+    /**
+     * Determines if this Emitter evaluates expressions in allocated registers.
+     * @return true if registers are allocated; otherwise, false
+     */
+    public boolean isAllocatingRegisters()
+    {
+        return allocateRegisters;
+    }
+
+    /**
+     * Takes a free register from the pool.
+     * @return the register, or null if every register is in use
+     *         (in which case the caller has to spill to the stack)
+     */
+    public Register allocateRegister()
+    {
+        Register reg = freeRegisters.pollFirst();
+        if(reg != null)
+            liveRegisters.add(reg);
+        return reg;
+    }
+
+    /**
+     * Returns a register to the pool. Registers that did not come from
+     * allocateRegister(), such as $t0 and $v0, are ignored.
+     * @param reg the register
+     */
+    public void freeRegister(Register reg)
+    {
+        if(liveRegisters.remove(reg))
+            freeRegisters.addFirst(reg);
+    }
+
+    /**
+     * Gives the registers that are currently allocated, in the order they
+     * were allocated.
+     * @return a copy of the list of allocated registers
+     */
+    public List<Register> getLiveRegisters()
+    {
+        return new ArrayList<Register>(liveRegisters);
+    }
+
+	/**
+	 * Provides the name of a new MIPS label, made of this Emitter's label
+	 * namespace, the given kind and the next label ID (to ensure that all
+	 * labels are different).
+	 * @param kind what the label marks, such as "endIf"
+	 * @return the name of the label
+	 */
+    public String nextLabel(String kind)
+    {
+        nextLabelID++;
+        return labelNamespace + kind + nextLabelID;
+    }
+
+	/**
+	 * Creates an Emitter with the same settings as this one (register
+	 * allocation, compact mode and peephole optimization) that keeps its
+	 * code in memory and starts every label it makes with the given
+	 * namespace. Its code can be added to this Emitter's with emitChild().
+	 * @param labelNamespace the start of every label the child makes,
+	 *                       which no other Emitter's labels may start with
+	 * @return the child Emitter
+	 */
+    public Emitter createChild(String labelNamespace)
+    {
+        // the child appends to a plain StringBuilder rather than a Writer,
+        // so its code is copied no more often than if it were written here
+        Emitter child = new Emitter(allocateRegisters);
+        child.memory = new StringBuilder();
+        child.labelNamespace = labelNamespace;
+        child.setCompact(compact);
+        child.setPeephole(peephole != null);
+        return child;
+    }
+
+	/**
+	 * Writes the MIPS code of a child Emitter after everything emitted so
+	 * far, and adds the child's peephole hits to this Emitter's.
+	 * @param child an Emitter made by createChild()
+	 */
+    public void emitChild(Emitter child)
+    {
+        child.writeCollected();
+        writeCollected();
+        if(peephole != null && child.peephole != null)
+            peephole.addHits(child.peephole);
+        if(transfer == null)
+            transfer = new char[BUFFER_SIZE];
+        StringBuilder code = child.memory;
+        try
+        {
+            // chunks as large as the buffer go straight past it
+            for(int start = 0; start < code.length(); start += transfer.length)
+            {
+                int end = Math.min(start + transfer.length, code.length());
+                code.getChars(start, end, transfer, 0);
+                out.write(transfer, 0, end - start);
+            }
+        }
+        catch(IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+	/**
+	 * Prints one line that is not an instruction, such as a directive or
+	 * a data declaration, to file (indented).
+	 * @param code line of code to be written to file
+	 */
+    public void emit(String code)
+    {
+        add(new Instruction(code, null));
+    }
+
+	/**
+	 * Prints one line that is not an instruction to file, followed by a
+	 * comment unless this Emitter is compact.
+	 * @param code line of code to be written to file
+	 * @param comment the text of the comment
+	 */
+    public void emit(String code, String comment)
+    {
+        add(new Instruction(code, compact ? null : () -> comment));
+    }
+
+	/**
+	 * Prints a label to file.
+	 * @param name the name of the label, without the colon
+	 */
+    public void emitLabel(String name)
+    {
+        add(new Instruction(name + ":", null));
+    }
+
+	/**
+	 * Prints one instruction to file.
+	 * @param opcode the opcode of the instruction
+	 * @param operands the operands of the instruction, in order
+	 */
+    public void emit(MipsOpcode opcode, Operand... operands)
+    {
+        add(new Instruction(opcode, null, operands));
+    }
+
+	/**
+	 * Prints one instruction to file, followed by a comment unless this
+	 * Emitter is compact.
+	 * @param opcode the opcode of the instruction
+	 * @param comment the text of the comment
+	 * @param operands the operands of the instruction, in order
+	 */
+    public void emit(MipsOpcode opcode, String comment, Operand... operands)
+    {
+        add(new Instruction(opcode, compact ? null : () -> comment, operands));
+    }
+
+	/**
+	 * Prints one instruction to file, followed by a comment unless this
+	 * Emitter is compact. The comment is only built if it is written.
+	 * @param opcode the opcode of the instruction
+	 * @param comment builds the text of the comment
+	 * @param operands the operands of the instruction, in order
+	 */
+    public void emit(MipsOpcode opcode, Supplier<String> comment, Operand... operands)
+    {
+        add(new Instruction(opcode, compact ? null : comment, operands));
+    }
+
+	/**
+	 * Collects an Instruction for the PeepholeOptimizer or, if peephole
+	 * optimization is off, writes it out straight away.
+	 * @param instr the Instruction
+	 */
+    private void add(Instruction instr)
+    {
+        if(instructions != null)
+            instructions.add(instr);
+        else
+            write(instr);
+    }
+
+	/**
+	 * Writes one Instruction to file (with non-labels indented), followed
+	 * by its comment if it has one.
+	 * @param instr the Instruction to be written to file
+	 */
+    private void write(Instruction instr)
+    {
+        line.setLength(0);
+        if(instr.isInstruction())
+        {
+            line.append('\t').append(instr.getOpcode());
+            for(int i = 0; i < instr.getOperandCount(); i++)
+                line.append(i == 0 ? " " : ", ").append(instr.getOperand(i));
+        }
+        else
+        {
+            String code = instr.toString();
+            int length = code.length();
+            if(length == 0 || (code.charAt(length - 1) != ':' && code.charAt(0) != '#'))
+                line.append('\t');
+            line.append(code);
+        }
+        if(instr.getComment() != null)
+            line.append("\t# ").append(instr.getComment().get());
+        line.append(NEWLINE);
+        if(memory != null)
+        {
+            memory.append(line);
+            return;
+        }
+        try
+        {
+            out.append(line);
+        }
+        catch(IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+	/**
+	 * Prints a comment on its own line unless this Emitter is compact.
+	 * @param comment the text of the comment
+	 */
+    public void emitComment(String comment)
+    {
+        if(! compact)
+            emit("# " + comment);
+    }
+
+	/**
+	 * Pushes the value of a given MIPS register onto
+	 * the stack.
+	 * @param reg the MIPS register that is pushed onto the stack
+	 */
+    public void emitPush(Register reg)
+    {
+        emit(MipsOpcode.SUBU, "allocating 4 bytes of memory",
+                Register.SP, Register.SP, new Immediate(4));
+        emit(MipsOpcode.SW, () -> "pushes " + reg + " onto the stack",
+                reg, new Address(Register.SP));
+        excessStackHeight += 4;
+    }
+
+	/**
+	 * Pops the top element of the stack onto a specified
+	 * MIPS register.
+	 * @param reg the MIPS register where the popped value goes
+	 */
+    public void emitPop(Register reg)
+    {
+        emit(MipsOpcode.LW, () -> "pops top element on stack onto " + reg,
+                reg, new Address(Register.SP));
+        emit(MipsOpcode.ADDU, "removing the previously occupied 4 bytes of memory",
+                Register.SP, Register.SP, new Immediate(4));
+        excessStackHeight -= 4;
+    }
+
+	/**
+	 * Pushes the values of several MIPS registers onto the stack, in order,
+	 * with a single adjustment of $sp. The stack ends up as if each register
+	 * had been pushed with emitPush.
+	 * @param regs the MIPS registers that are pushed onto the stack
+	 */
+    public void emitPushAll(List<Register> regs)
+    {
+        int count = regs.size();
+        if(count == 0)
+            return;
+        emit(MipsOpcode.SUBU, () -> "allocating " + 4 * count + " bytes of memory",
+                Register.SP, Register.SP, new Immediate(4 * count));
+        for(int i = 0; i < count; i++)
+        {
+            Register reg = regs.get(i);
+            emit(MipsOpcode.SW, () -> "pushes " + reg + " onto the stack",
+                    reg, new Address(4 * (count - 1 - i), Register.SP));
+        }
+        excessStackHeight += 4 * count;
+    }
+
+	/**
+	 * Pops values pushed by emitPushAll back into the same registers, with
+	 * a single adjustment of $sp.
+	 * @param regs the MIPS registers, in the order they were pushed
+	 */
+    public void emitPopAll(List<Register> regs)
+    {
+        int count = regs.size();
+        if(count == 0)
+            return;
+        for(int i = count - 1; i >= 0; i--)
+        {
+            Register reg = regs.get(i);
+            emit(MipsOpcode.LW, () -> "pops a saved value onto " + reg,
+                    reg, new Address(4 * (count - 1 - i), Register.SP));
+        }
+        emitDiscard(count);
+    }
+
+	/**
+	 * Removes values from the top of the stack without loading them.
+	 * @param count the number of values to remove
+	 */
+    public void emitDiscard(int count)
+    {
+        if(count == 0)
+            return;
+        emit(MipsOpcode.ADDU,
+                () -> "removing the previously occupied " + 4 * count + " bytes of memory",
+                Register.SP, Register.SP, new Immediate(4 * count));
+        excessStackHeight -= 4 * count;
+    }
+
+    /**
+     * Sets the procedure context to the given ProcedureDeclaration, laying
+     * out its frame once. Must be called once the procedure has pushed its
+     * local variables; from the top of the stack, the frame then holds the
+     * local variables in order, then the return value (under the
+     * procedure's name), then the parameters from last to first. Below the
+     * parameters is the caller's saved $ra.
+     * @param procDec new procedure context to be set
+     */
+    public void setProcedureContext(ProcedureDeclaration procDec)
+    {
+        List<String> locVars = procDec.getLocVars();
+        List<String> params = procDec.getParams();
+        frameOffsets = new HashMap<String, Integer>();
+        // later entries win, so a local hides the return value, which
+        // hides a parameter, and of two equal names the one nearer the
+        // top of the stack is used
+        int offset = 4 * (locVars.size() + params.size());
+        for(String param: params)
+        {
+            frameOffsets.put(param, offset);
+            offset -= 4;
+        }
+        frameOffsets.put(procDec.getName(), offset);
+        for(int i = locVars.size() - 1; i >= 0; i--)
+        {
+            offset -= 4;
+            frameOffsets.put(locVars.get(i), offset);
+        }
+        excessStackHeight = 0;
+    }
+
+    /**
+     * Clears the procedure context (to null).
+     */
+    public void clearProcedureContext()
+    {
+        frameOffsets = null;
+    }
+
+    /**
+     * Determines if a given variable is local or global.
+     * @param varName the name of the variable whose locality is being checked
+     * @return true if the given variable is local to the ProcedureDeclaration;
+     *         otherwise, false
+     */
+    public boolean isLocalVariable(String varName)
+    {
+        return frameOffsets != null && frameOffsets.containsKey(varName);
+    }
+
+    /**
+     * Determines the positional offset of a certain variable from the top of the stack,
+     * counting every value pushed since the procedure was entered.
+     * @param localVarName name of variable whose offset is being found
+     * @return offset of varName in the stack if varName is defined; otherwise, -1
+     */
+    public int getOffset(String localVarName)
+    {
+        Integer offset = frameOffsets.get(localVarName);
+        if(offset == null)
+            return -1;
+        return excessStackHeight + offset;
+    }
+
+	/**
+	 * Writes out everything emitted so far (or, for a child Emitter, runs
+	 * the PeepholeOptimizer over it so that emitChild() only copies it).
+	 */
+    public void flush()
+    {
+        writeCollected();
+        if(out == null)
+            return;
+        try
+        {
+            out.flush();
+        }
+        catch(IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+	/**
+	 * Runs the PeepholeOptimizer over the Instructions collected so far, if
+	 * peephole optimization is on, and writes them.
+	 */
+    private void writeCollected()
+    {
+        if(instructions != null)
+        {
+            for(Instruction instr: peephole.optimize(instructions))
+                write(instr);
+            instructions.clear();
+        }
+    }
+
+	/**
+	 * Closes the file (or the Writer or OutputStream), after writing out
+	 * everything emitted. Should be called after all calls to emit.
+	 */
+    public void close()
+    {
+        flush();
+        if(out == null)
+            return;
+        try
+        {
+            out.close();
+        }
+        catch(IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+	/**
+	 * Opens a new file for writing.
+	 * @param outputFileName String denoting name of output file
+	 * @return a Writer for the file
+	 */
+    private static Writer openFile(String outputFileName)
+    {
+        try
+        {
+            return new FileWriter(outputFileName);
+        }
+        catch(IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package emitter;
+
+/**
+ * The Immediate class is an integer constant used as an operand.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class Immediate implements Operand
+{
+    private int value;
+
+    /**
+     * Constructor for an Immediate operand.
+     * @param value the integer value
+     */
+    public Immediate(int value)
+    {
+        this.value = value;
+    }
+
+    /**
+     * Gives the value of this operand.
+     * @return the integer value
+     */
+    public int getValue()
+    {
+        return value;
+    }
+
+    @Override
+    public boolean uses(Register reg)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof Immediate && ((Immediate) other).value == value;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return value;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "" + value;
+    }
+}
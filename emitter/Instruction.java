@@ -0,0 +1,138 @@
+package emitter;
+
+import java.util.function.Supplier;
+
+/**
+ * The Instruction class is one line of the compiler's MIPS intermediate
+ * representation. A line is either an instruction (a MipsOpcode and its
+ * Operands) or anything else, such as a label, a directive, a data
+ * declaration or a comment, which is kept as text. The Emitter only turns
+ * Instructions into MIPS text when it writes them out.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class Instruction
+{
+    private MipsOpcode opcode;
+    private Operand[] operands;
+    private String text;
+    private Supplier<String> comment;
+
+    /**
+     * Constructor for a line that is not an instruction.
+     * @param text the line of MIPS text (a label, directive or comment)
+     * @param comment builds the trailing comment, or null if there is none
+     */
+    public Instruction(String text, Supplier<String> comment)
+    {
+        this.text = text;
+        this.comment = comment;
+        operands = new Operand[0];
+    }
+
+    /**
+     * Constructor for an instruction.
+     * @param opcode the MIPS opcode
+     * @param comment builds the trailing comment, or null if there is none
+     * @param operands the operands, in order
+     */
+    public Instruction(MipsOpcode opcode, Supplier<String> comment, Operand... operands)
+    {
+        this.opcode = opcode;
+        this.comment = comment;
+        this.operands = operands;
+    }
+
+    /**
+     * Determines if this line is an instruction rather than a label,
+     * directive, data declaration or comment.
+     * @return true if this is an instruction; otherwise, false
+     */
+    public boolean isInstruction()
+    {
+        return opcode != null;
+    }
+
+    /**
+     * Determines if this is an instruction with the given opcode.
+     * @param op the opcode to compare with
+     * @return true if this instruction's opcode is op; otherwise, false
+     */
+    public boolean is(MipsOpcode op)
+    {
+        return opcode == op;
+    }
+
+    /**
+     * Gives the opcode of this instruction.
+     * @return the opcode, or null if this line is not an instruction
+     */
+    public MipsOpcode getOpcode()
+    {
+        return opcode;
+    }
+
+    /**
+     * Gives one operand of this instruction.
+     * @param index the position of the operand
+     * @return the operand
+     */
+    public Operand getOperand(int index)
+    {
+        return operands[index];
+    }
+
+    /**
+     * Gives the number of operands of this instruction.
+     * @return the operand count (0 if this line is not an instruction)
+     */
+    public int getOperandCount()
+    {
+        return operands.length;
+    }
+
+    /**
+     * Gives the builder of the trailing comment.
+     * @return the comment builder, or null if there is no comment
+     */
+    public Supplier<String> getComment()
+    {
+        return comment;
+    }
+
+    /**
+     * Determines if this instruction uses a register in any operand from
+     * a given position on, including as the base register of an address.
+     * @param reg the register
+     * @param from the first operand to look at
+     * @return true if an operand at or after from uses reg; otherwise, false
+     */
+    public boolean uses(Register reg, int from)
+    {
+        for(int i = from; i < operands.length; i++)
+            if(operands[i].uses(reg))
+                return true;
+        return false;
+    }
+
+    /**
+     * Gives the line of MIPS code for this Instruction, without its comment.
+     * @return the MIPS code
+     */
+    public String toString()
+    {
+        if(opcode == null)
+            return text;
+        if(operands.length == 0)
+            return opcode.toString();
+        StringBuilder code = new StringBuilder(opcode.toString()).append(' ');
+        for(int i = 0; i < operands.length; i++)
+        {
+            if(i > 0)
+                code.append(", ");
+            code.append(operands[i]);
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package emitter;
+
+/**
+ * The Label class is the name of a code label or of a global variable,
+ * used as an operand of a jump, branch, load or store.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class Label implements Operand
+{
+    private String name;
+
+    /**
+     * Constructor for a Label operand.
+     * @param name the name of the label
+     */
+    public Label(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Gives the name of this Label.
+     * @return the name of the label, without the colon
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public boolean uses(Register reg)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof Label && ((Label) other).name.equals(name);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
@@ -0,0 +1,67 @@
+package emitter;
+
+/**
+ * The MipsOpcode enum lists the MIPS instructions the compiler emits. Each
+ * opcode records whether it only writes its first operand (a register)
+ * from its other operands, with no other effect, and whether it transfers
+ * control, which the PeepholeOptimizer needs to know.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public enum MipsOpcode
+{
+    LW(true, false), LI(true, false), LA(true, false), MOVE(true, false),
+    ADDU(true, false), SUBU(true, false), SLL(true, false), SRL(true, false),
+    SRA(true, false), MFLO(true, false), MFHI(true, false),
+    SW(false, false), MULT(false, false), DIV(false, false),
+    BEQ(false, true), BNE(false, true), BLT(false, true), BGT(false, true),
+    BLE(false, true), BGE(false, true),
+    J(false, true), JAL(false, true), JR(false, true), SYSCALL(false, true);
+
+    private boolean pureWrite;
+    private boolean control;
+    private String mnemonic;
+
+    /**
+     * Constructor for a MipsOpcode.
+     * @param pureWrite true if the instruction only writes its first operand
+     * @param control true if the instruction can transfer control
+     */
+    private MipsOpcode(boolean pureWrite, boolean control)
+    {
+        this.pureWrite = pureWrite;
+        this.control = control;
+        mnemonic = name().toLowerCase();
+    }
+
+    /**
+     * Determines if this instruction only computes a value into the register
+     * given as its first operand.
+     * @return true if the instruction is a pure write; otherwise, false
+     */
+    public boolean isPureWrite()
+    {
+        return pureWrite;
+    }
+
+    /**
+     * Determines if this instruction can transfer control (a jump, branch,
+     * call, return or syscall).
+     * @return true if the instruction transfers control; otherwise, false
+     */
+    public boolean isControl()
+    {
+        return control;
+    }
+
+    /**
+     * Gives the mnemonic of this instruction as it is written in MIPS.
+     * @return the lowercase mnemonic, such as "addu"
+     */
+    @Override
+    public String toString()
+    {
+        return mnemonic;
+    }
+}
@@ -0,0 +1,20 @@
+package emitter;
+
+/**
+ * The Operand interface is implemented by everything that can appear as an
+ * operand of a MIPS Instruction: a Register, an Immediate value, a Label or
+ * a memory Address. toString() gives the operand as it is written in MIPS.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public interface Operand
+{
+    /**
+     * Determines if this operand reads the given register, either directly
+     * or as the base of an address.
+     * @param reg the register
+     * @return true if this operand uses reg; otherwise, false
+     */
+    boolean uses(Register reg);
+}
@@ -0,0 +1,273 @@
+package emitter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The PeepholeOptimizer class rewrites short runs of adjacent MIPS
+ * Instructions into shorter equivalent ones. Labels, directives, jumps,
+ * branches, calls and syscalls end a run, so no pattern ever spans code
+ * that can be jumped into or out of.
+ *
+ * The patterns are:
+ * push-pop: a push of one register followed by a pop into another
+ *           becomes a single move (or nothing). Up to two instructions
+ *           that do not touch the stack or the popped register may come
+ *           between them; the move is placed before those instructions.
+ * merge-sp: consecutive adjustments of $sp become one adjustment (or
+ *           nothing, if they cancel).
+ * dead-write: a load, move or arithmetic result that is overwritten
+ *             before it is read is removed.
+ * self-move: a move of a register onto itself is removed.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class PeepholeOptimizer
+{
+    private static final int DEAD_WRITE_WINDOW = 8;
+    private static final int PUSH_POP_GAP = 2;
+
+    private Map<String, Integer> hits;
+
+    /**
+     * Constructor for a PeepholeOptimizer with no hits counted yet.
+     */
+    public PeepholeOptimizer()
+    {
+        hits = new LinkedHashMap<String, Integer>();
+        hits.put("push-pop", 0);
+        hits.put("merge-sp", 0);
+        hits.put("dead-write", 0);
+        hits.put("self-move", 0);
+    }
+
+    /**
+     * Gives the number of times each pattern has been applied by this
+     * PeepholeOptimizer, in the order the patterns are listed above.
+     * @return a map from pattern name to hit count
+     */
+    public Map<String, Integer> getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Adds the hit counts of another PeepholeOptimizer to this one's.
+     * @param other the other PeepholeOptimizer
+     */
+    public void addHits(PeepholeOptimizer other)
+    {
+        for(Map.Entry<String, Integer> hit: other.hits.entrySet())
+            hits.merge(hit.getKey(), hit.getValue(), Integer::sum);
+    }
+
+    /**
+     * Applies every pattern repeatedly until none of them matches.
+     * @param code the Instructions to optimize
+     * @return the optimized Instructions
+     */
+    public List<Instruction> optimize(List<Instruction> code)
+    {
+        boolean changed = true;
+        while(changed)
+        {
+            List<Instruction> result = new ArrayList<Instruction>(code.size());
+            changed = false;
+            int i = 0;
+            while(i < code.size())
+            {
+                int consumed = rewrite(code, i, result);
+                if(consumed == 0)
+                    result.add(code.get(i++));
+                else
+                {
+                    i += consumed;
+                    changed = true;
+                }
+            }
+            code = result;
+        }
+        return code;
+    }
+
+    /**
+     * Tries every pattern at one position.
+     * @param code the Instructions being optimized
+     * @param i the position to match at
+     * @param result the list that receives any replacement Instructions
+     * @return the number of Instructions replaced, or 0 if nothing matched
+     */
+    private int rewrite(List<Instruction> code, int i, List<Instruction> result)
+    {
+        Instruction instr = code.get(i);
+        if(! instr.isInstruction())
+            return 0;
+        if(instr.is(MipsOpcode.MOVE) && instr.getOperand(0) == instr.getOperand(1))
+        {
+            count("self-move");
+            return 1;
+        }
+        int gap = pushPopGap(code, i);
+        if(gap >= 0)
+        {
+            Register from = (Register) code.get(i + 1).getOperand(0);
+            Register to = (Register) code.get(i + gap + 2).getOperand(0);
+            if(from != to)
+                result.add(new Instruction(MipsOpcode.MOVE, () -> "moves " + from.getName() +
+                        " to " + to.getName(), to, from));
+            for(int j = i + 2; j < i + gap + 2; j++)
+                result.add(code.get(j));
+            count("push-pop");
+            return gap + 4;
+        }
+        if(i + 1 < code.size() && stackAdjustment(instr) != 0 &&
+                stackAdjustment(code.get(i + 1)) != 0)
+        {
+            int bytes = stackAdjustment(instr) + stackAdjustment(code.get(i + 1));
+            if(bytes > 0)
+                result.add(new Instruction(MipsOpcode.ADDU,
+                        () -> "removing " + bytes + " bytes of memory",
+                        Register.SP, Register.SP, new Immediate(bytes)));
+            else if(bytes < 0)
+                result.add(new Instruction(MipsOpcode.SUBU,
+                        () -> "allocating " + -bytes + " bytes of memory",
+                        Register.SP, Register.SP, new Immediate(-bytes)));
+            count("merge-sp");
+            return 2;
+        }
+        if(isDeadWrite(code, i))
+        {
+            count("dead-write");
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Determines if a push of a register starts at a position and is
+     * matched by a pop, with only instructions in between that neither
+     * touch $sp nor use the popped register.
+     * @param code the Instructions being optimized
+     * @param i the position of the possible push
+     * @return the number of instructions between the push and the pop,
+     *         or -1 if there is no such pair
+     */
+    private static int pushPopGap(List<Instruction> code, int i)
+    {
+        if(i + 3 >= code.size() || ! isStackAdjust(code.get(i), MipsOpcode.SUBU) ||
+                ! isTopOfStackAccess(code.get(i + 1), MipsOpcode.SW))
+            return -1;
+        for(int gap = 0; gap <= PUSH_POP_GAP && i + gap + 3 < code.size(); gap++)
+        {
+            Instruction pop = code.get(i + gap + 2);
+            if(isTopOfStackAccess(pop, MipsOpcode.LW) &&
+                    isStackAdjust(code.get(i + gap + 3), MipsOpcode.ADDU))
+            {
+                Register to = (Register) pop.getOperand(0);
+                for(int j = i + 2; j < i + gap + 2; j++)
+                    if(code.get(j).uses(to, 0))
+                        return -1;
+                return gap;
+            }
+            if(! isPureWrite(pop) || pop.uses(Register.SP, 0))
+                return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Determines if an Instruction loads or stores a register at ($sp).
+     * @param instr the Instruction
+     * @param op MipsOpcode.LW or MipsOpcode.SW
+     * @return true if instr is op reg, ($sp); otherwise, false
+     */
+    private static boolean isTopOfStackAccess(Instruction instr, MipsOpcode op)
+    {
+        return instr.is(op) && instr.getOperand(0) instanceof Register &&
+                instr.getOperand(1).equals(new Address(Register.SP));
+    }
+
+    /**
+     * Determines if an Instruction adds or subtracts 4 from $sp.
+     * @param instr the Instruction
+     * @param op MipsOpcode.ADDU or MipsOpcode.SUBU
+     * @return true if instr is op $sp, $sp, 4; otherwise, false
+     */
+    private static boolean isStackAdjust(Instruction instr, MipsOpcode op)
+    {
+        return instr.is(op) && stackAdjustment(instr) != 0 &&
+                instr.getOperand(2).equals(new Immediate(4));
+    }
+
+    /**
+     * Gives the number of bytes an Instruction adds to $sp.
+     * @param instr the Instruction
+     * @return the (possibly negative) change of $sp, or 0 if instr does
+     *         not move $sp by a constant
+     */
+    private static int stackAdjustment(Instruction instr)
+    {
+        if(! (instr.is(MipsOpcode.ADDU) || instr.is(MipsOpcode.SUBU)) ||
+                instr.getOperand(0) != Register.SP || instr.getOperand(1) != Register.SP ||
+                ! (instr.getOperand(2) instanceof Immediate))
+            return 0;
+        int bytes = ((Immediate) instr.getOperand(2)).getValue();
+        return instr.is(MipsOpcode.ADDU) ? bytes : -bytes;
+    }
+
+    /**
+     * Determines if an Instruction only writes a register other than $sp,
+     * reading its other operands, with no other effect.
+     * @param instr the Instruction
+     * @return true if instr is a pure write of a register; otherwise, false
+     */
+    private static boolean isPureWrite(Instruction instr)
+    {
+        return instr.isInstruction() && instr.getOpcode().isPureWrite() &&
+                instr.getOperand(0) != Register.SP;
+    }
+
+    /**
+     * Determines if the register written by an Instruction is written again
+     * by a later Instruction before anything reads it. Any label or
+     * control transfer in between ends the search.
+     * @param code the Instructions being optimized
+     * @param i the position of the Instruction
+     * @return true if the written value is never used; otherwise, false
+     */
+    private static boolean isDeadWrite(List<Instruction> code, int i)
+    {
+        Instruction instr = code.get(i);
+        if(! isPureWrite(instr))
+            return false;
+        Register reg = (Register) instr.getOperand(0);
+        for(int j = i + 1; j < code.size() && j <= i + DEAD_WRITE_WINDOW; j++)
+        {
+            Instruction next = code.get(j);
+            if(! next.isInstruction() || next.getOpcode().isControl())
+                return false;
+            if(isPureWrite(next))
+            {
+                if(next.uses(reg, 1))
+                    return false;
+                if(next.getOperand(0) == reg)
+                    return true;
+            }
+            else if(next.uses(reg, 0))
+                return false;
+        }
+        return false;
+    }
+
+    /**
+     * Records one application of a pattern.
+     * @param pattern the name of the pattern
+     */
+    private void count(String pattern)
+    {
+        hits.put(pattern, hits.get(pattern) + 1);
+    }
+}
@@ -0,0 +1,53 @@
+package emitter;
+
+/**
+ * The Register enum lists the MIPS registers that the compiler uses.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public enum Register implements Operand
+{
+    V0, A0,
+    T0, T1, T2, T3, T4, T5, T6, T7, T8, T9,
+    S0, S1, S2, S3, S4, S5, S6, S7,
+    SP, RA;
+
+    private String name;
+    private String code;
+
+    /**
+     * Constructor for a Register, which works out its names once.
+     */
+    private Register()
+    {
+        name = name().toLowerCase();
+        code = "$" + name;
+    }
+
+    /**
+     * Gives the name of this register without the leading $, as it is
+     * written in comments.
+     * @return the name of the register, such as "t0"
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public boolean uses(Register reg)
+    {
+        return this == reg;
+    }
+
+    /**
+     * Gives this register as it is written in MIPS.
+     * @return the name of the register, such as "$t0"
+     */
+    @Override
+    public String toString()
+    {
+        return code;
+    }
+}
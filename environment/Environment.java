@@ -1,21 +1,20 @@
 package environment;
 
-import java.util.Map;
-import java.util.HashMap;
-import ast.*;
-
 /**
- * The Environment class keeps track of all variables and procedures.
+ * The Environment class keeps track of the variables of one activation.
  * Environments can be the children of other Environments, and the topmost
- * Environment is the global Environment.
+ * Environment is the global Environment. Variables are stored in an int
+ * array and are addressed by the (depth, slot) pair assigned to them when
+ * the Program was resolved, so no names are looked up while running.
+ * Procedures are not kept here: each ProcedureCall is bound to its
+ * ProcedureDeclaration when the Program is resolved (see Scope).
  *
  * @author Saahas Kohli
  * @version 11/19/2021
  */
 public class Environment
 {
-    private Map<String, Integer> variables;
-    private Map<String, ProcedureDeclaration> procedures;
+    private int[] variables;
     private Environment parent;
 
     /**
@@ -23,98 +22,75 @@ public class Environment
      */
     public Environment()
     {
-        variables = new HashMap<String, Integer>();
-        procedures = new HashMap<String, ProcedureDeclaration>();
+        variables = new int[0];
         parent = null;
     }
 
     /**
      * Constructor for a child Environment.
      * @param env the parent Environment
+     * @param size the number of variable slots in the new frame
      */
-    public Environment(Environment env)
+    public Environment(Environment env, int size)
     {
-        variables = new HashMap<String, Integer>();
-        procedures = new HashMap<String, ProcedureDeclaration>();
+        variables = new int[size];
         parent = env;
     }
 
     /**
-     * Defines a variable in the current Environment.
-     * @param variable String denoting the variable's name
-     * @param value integer value to be stored by the variable
-     */
-    public void declareVariable(String variable, int value)
-    {
-        variables.put(variable, value);
-    }
-
-    /**
-     * Helper for the setVariable method.
-     * @param variable String denoting the variable's name
-     * @param value integer value to be stored by the variable
-     * @return true if the variable was set; otherwise, false
+     * Makes sure this Environment has at least the given number of
+     * variable slots, keeping the values already stored.
+     * @param size the number of slots needed
      */
-    public boolean setVariableHelper(String variable, int value)
+    public void reserve(int size)
     {
-        if(variables.containsKey(variable))
-        {
-            variables.put(variable, value);
-            return true;
-        }
-        else if(parent == null)
+        if(variables.length < size)
         {
-            return false;
+            int[] bigger = new int[size];
+            System.arraycopy(variables, 0, bigger, 0, variables.length);
+            variables = bigger;
         }
-        else
-            return parent.setVariableHelper(variable, value);
     }
 
     /**
-     * Defines a variable in the appropriate Environment.
-     * @param variable the name of a variable
-     * @param value the integer value to be associated
+     * Gives the global Environment that this Environment descends from.
+     * @return the topmost Environment
      */
-    public void setVariable(String variable, int value)
+    public Environment getGlobal()
     {
-        if(! setVariableHelper(variable, value))
-            variables.put(variable, value);
+        Environment env = this;
+        while(env.parent != null)
+            env = env.parent;
+        return env;
     }
 
     /**
-     * Outputs integer value of the variable associated with the given name.
-     * @param variable the name of the variable to be accessed
-     * @return the integer value of the variable
+     * Stores a value in a variable.
+     * @param depth the number of Environments up from this one that
+     *              hold the variable
+     * @param slot the slot of the variable in that Environment
+     * @param value the integer value to be stored
      */
-    public int getVariable(String variable)
+    public void setVariable(int depth, int slot, int value)
     {
-        if(variables.containsKey(variable))
-            return variables.get(variable);
-        return parent.getVariable(variable);
+        Environment env = this;
+        for(int i = 0; i < depth; i++)
+            env = env.parent;
+        env.variables[slot] = value;
     }
 
     /**
-     * Outputs the ProcedureDeclaration mapped by a given name.
-     * @param procName String denoting the name of a ProcedureDeclaration
-     * @return the ProcedureDeclaration associated with the given Procedure name
-     */
-    public ProcedureDeclaration getProcedure(String procName)
-    {
-        if(parent == null)
-            return procedures.get(procName);
-        return parent.getProcedure(procName);
-    }
-
-    /**
-     * Associates a Procedure name with a ProcedureDeclaration.
-     * @param procName String denoting the name of the given ProcedureDeclaration
-     * @param procDec the ProcedureDeclaration to be associated with procName
+     * Outputs integer value of a variable.
+     * @param depth the number of Environments up from this one that
+     *              hold the variable
+     * @param slot the slot of the variable in that Environment
+     * @return the integer value of the variable
      */
-    public void setProcedure(String procName, ProcedureDeclaration procDec)
+    public int getVariable(int depth, int slot)
     {
-        if(parent == null)
-            procedures.put(procName, procDec);
-        else
-            parent.setProcedure(procName, procDec);
+        Environment env = this;
+        for(int i = 0; i < depth; i++)
+            env = env.parent;
+        return env.variables[slot];
     }
 }
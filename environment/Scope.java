@@ -0,0 +1,133 @@
+package environment;
+
+import ast.ProcedureDeclaration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The Scope class is used while resolving a Program to assign every
+ * variable name a slot in a frame. A Scope with no parent holds the global
+ * variables; a procedure's Scope holds its parameters, its return value and
+ * its local variables. A variable that is used without being declared
+ * anywhere becomes a global variable, just as it would in the MIPS output.
+ * The global Scope also holds the table of procedures, which lets every
+ * ProcedureCall find its ProcedureDeclaration once instead of on each call.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class Scope
+{
+    private Map<String, Integer> slots;
+    private Map<String, ProcedureDeclaration> procedures;
+    private Scope parent;
+
+    /**
+     * Constructor for the global Scope.
+     */
+    public Scope()
+    {
+        slots = new HashMap<String, Integer>();
+        procedures = new HashMap<String, ProcedureDeclaration>();
+        parent = null;
+    }
+
+    /**
+     * Constructor for a procedure Scope.
+     * @param parent the enclosing (global) Scope
+     */
+    public Scope(Scope parent)
+    {
+        slots = new HashMap<String, Integer>();
+        this.parent = parent;
+    }
+
+    /**
+     * Declares a variable in this Scope, giving it the next free slot.
+     * Declaring a name twice keeps its original slot.
+     * @param name the name of the variable
+     * @return the slot of the variable in this Scope's frame
+     */
+    public int declare(String name)
+    {
+        Integer slot = slots.get(name);
+        if(slot != null)
+            return slot;
+        slots.put(name, slots.size());
+        return slots.size() - 1;
+    }
+
+    /**
+     * Determines how many frames up from this Scope's frame a variable
+     * is stored. A variable that is not declared anywhere is declared as
+     * a global variable.
+     * @param name the name of the variable
+     * @return 0 if the variable is in this Scope's frame, 1 if it is in
+     *         the parent's frame, and so on
+     */
+    public int getDepth(String name)
+    {
+        int depth = 0;
+        for(Scope scope = this; scope != null; scope = scope.parent)
+        {
+            if(scope.slots.containsKey(name))
+                return depth;
+            if(scope.parent == null)
+            {
+                scope.declare(name);
+                return depth;
+            }
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Gives the slot of a variable in the frame that holds it.
+     * @param name the name of the variable
+     * @param depth the depth returned by getDepth for the variable
+     * @return the slot of the variable
+     */
+    public int getSlot(String name, int depth)
+    {
+        Scope scope = this;
+        for(int i = 0; i < depth; i++)
+            scope = scope.parent;
+        return scope.slots.get(name);
+    }
+
+    /**
+     * Declares a procedure in the global Scope. A later declaration of the
+     * same name replaces an earlier one.
+     * @param procDec the ProcedureDeclaration
+     */
+    public void declareProcedure(ProcedureDeclaration procDec)
+    {
+        if(parent == null)
+            procedures.put(procDec.getName(), procDec);
+        else
+            parent.declareProcedure(procDec);
+    }
+
+    /**
+     * Gives the procedure declared in the global Scope with a given name.
+     * @param name the name of the procedure
+     * @return the ProcedureDeclaration, or null if there is none
+     */
+    public ProcedureDeclaration getProcedure(String name)
+    {
+        if(parent == null)
+            return procedures.get(name);
+        return parent.getProcedure(name);
+    }
+
+    /**
+     * Gives the number of slots needed by a frame for this Scope.
+     * @return the number of variables declared in this Scope
+     */
+    public int size()
+    {
+        return slots.size();
+    }
+}
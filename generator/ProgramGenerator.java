@@ -0,0 +1,734 @@
+package generator;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The ProgramGenerator class writes random PASCAL programs for the grammar
+ * the Parser accepts, for benchmarking and stress testing the compiler on
+ * programs far larger than the parserTest files. A program has VAR
+ * declarations of global variables, procedures with parameters and local
+ * variables, and a main BEGIN block, made of assignments, WRITELNs, nested
+ * BEGIN blocks, IF and WHILE statements, deep expressions and calls,
+ * including recursive ones. Its size and shape are set with the setters
+ * or taken from a preset; the same settings and seed always give the same
+ * program.
+ *
+ * Every generated program runs to completion, so exec(), the
+ * VirtualMachine and the compiled MIPS can be compared on it:
+ * <ul>
+ * <li>Every WHILE loop counts a counter variable, which nothing else
+ *     assigns, up to a constant, and loops nest only so far before their
+ *     counts drop to 1.</li>
+ * <li>A procedure calls only procedures declared before it, and itself.
+ *     A recursive procedure's first parameter is never assigned; callers
+ *     pass it a small constant and the procedure calls itself once, with
+ *     that parameter minus 1, only when it is positive.</li>
+ * <li>The work each procedure does is estimated as it is written, and
+ *     calls are only made while the caller stays within its work budget,
+ *     so nested calls cannot multiply the running time without bound.</li>
+ * <li>Only constants other than 0 are divided by.</li>
+ * <li>Every global variable is declared, since the MIPS code only has
+ *     storage for declared variables.</li>
+ * </ul>
+ *
+ * Usage: java generator.ProgramGenerator [preset | all] [output directory] [seed]
+ * writes each preset program to preset.txt in the output directory
+ * (by default, the current directory). The directory can then be checked
+ * with java simulator.SimulatorTester [output directory].
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class ProgramGenerator
+{
+    /**
+     * The names of the presets, in the order they are written by main().
+     */
+    public static final String[] PRESETS = {"small", "wide", "deep", "expressions", "recursive",
+                                            "large"};
+
+    private static final int[] DIVISORS = {2, 3, 4, 7, 8, 10, 13};
+
+    private long seed;
+    private int globals;
+    private int procedures;
+    private int maxParams;
+    private int maxLocals;
+    private int statements;
+    private int mainStatements;
+    private int maxNesting;
+    private int maxExpressionDepth;
+    private int maxLoopCount;
+    private int maxLoopProduct;
+    private double recursionRate;
+    private int maxRecursion;
+    private int maxCallDepth;
+    private long workBudget;
+
+    private Random random;
+    private List<Procedure> procs;
+    private Procedure current;
+    private List<String> readable;
+    private List<String> writable;
+    private int counters;
+    private long multiplier;
+    private long work;
+    private long budget;
+    private int expressionNodes;
+
+    /**
+     * Constructor for a ProgramGenerator with the settings of the "small"
+     * preset.
+     */
+    public ProgramGenerator()
+    {
+        seed = 1;
+        globals = 8;
+        procedures = 6;
+        maxParams = 3;
+        maxLocals = 3;
+        statements = 8;
+        mainStatements = 20;
+        maxNesting = 3;
+        maxExpressionDepth = 4;
+        maxLoopCount = 5;
+        maxLoopProduct = 64;
+        recursionRate = 0.3;
+        maxRecursion = 6;
+        maxCallDepth = 12;
+        workBudget = 5000;
+    }
+
+    /**
+     * Makes a ProgramGenerator with the settings of a preset:
+     * <ul>
+     * <li>small: a few short procedures, about 400 lines</li>
+     * <li>wide: 400 procedures with shallow bodies, about 10,000 lines</li>
+     * <li>deep: statements nested up to 30 deep, about 4,000 lines</li>
+     * <li>expressions: expressions nested up to 40 deep</li>
+     * <li>recursive: mostly recursive procedures, recursing up to 40 deep</li>
+     * <li>large: 1,500 procedures and a long main block, about 135,000
+     *     lines</li>
+     * </ul>
+     * @param name the name of the preset
+     * @return the ProgramGenerator
+     * @throws IllegalArgumentException if there is no such preset
+     */
+    public static ProgramGenerator preset(String name)
+    {
+        ProgramGenerator generator = new ProgramGenerator();
+        switch(name)
+        {
+            case "small":
+                break;
+            case "wide":
+                generator.setProcedures(400);
+                generator.setStatements(6);
+                generator.setMaxNesting(2);
+                generator.setMainStatements(400);
+                generator.setGlobals(40);
+                break;
+            case "deep":
+                generator.setProcedures(20);
+                generator.setStatements(12);
+                generator.setMaxNesting(30);
+                generator.setMainStatements(40);
+                break;
+            case "expressions":
+                generator.setProcedures(20);
+                generator.setStatements(6);
+                generator.setMaxNesting(2);
+                generator.setMaxExpressionDepth(40);
+                generator.setMainStatements(40);
+                break;
+            case "recursive":
+                generator.setProcedures(40);
+                generator.setRecursionRate(0.8);
+                generator.setMaxRecursion(40);
+                generator.setMaxCallDepth(200);
+                generator.setMainStatements(60);
+                break;
+            case "large":
+                generator.setProcedures(1500);
+                generator.setStatements(12);
+                generator.setMaxNesting(4);
+                generator.setMaxExpressionDepth(6);
+                generator.setMainStatements(5000);
+                generator.setGlobals(100);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown preset \"" + name + "\"");
+        }
+        generator.setSeed(name.hashCode());
+        return generator;
+    }
+
+    /**
+     * Sets the seed of the random choices.
+     * @param seed the seed
+     */
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the number of global variables that procedures and the main
+     * block read and assign.
+     * @param globals the number of global variables
+     * @throws IllegalArgumentException if globals is less than 1
+     */
+    public void setGlobals(int globals)
+    {
+        if(globals < 1)
+            throw new IllegalArgumentException("A program needs a global variable");
+        this.globals = globals;
+    }
+
+    /**
+     * Sets the number of procedures.
+     * @param procedures the number of procedures
+     */
+    public void setProcedures(int procedures)
+    {
+        this.procedures = procedures;
+    }
+
+    /**
+     * Sets the largest number of parameters of a procedure.
+     * @param maxParams the largest number of parameters
+     */
+    public void setMaxParams(int maxParams)
+    {
+        this.maxParams = maxParams;
+    }
+
+    /**
+     * Sets the largest number of local variables of a procedure, not
+     * counting loop counters.
+     * @param maxLocals the largest number of local variables
+     */
+    public void setMaxLocals(int maxLocals)
+    {
+        this.maxLocals = maxLocals;
+    }
+
+    /**
+     * Sets the number of statements at the top level of each procedure body.
+     * @param statements the number of statements
+     */
+    public void setStatements(int statements)
+    {
+        this.statements = statements;
+    }
+
+    /**
+     * Sets the number of statements at the top level of the main block.
+     * @param mainStatements the number of statements
+     */
+    public void setMainStatements(int mainStatements)
+    {
+        this.mainStatements = mainStatements;
+    }
+
+    /**
+     * Sets how deeply BEGIN, IF and WHILE statements can be nested.
+     * @param maxNesting the deepest nesting
+     */
+    public void setMaxNesting(int maxNesting)
+    {
+        this.maxNesting = maxNesting;
+    }
+
+    /**
+     * Sets how deeply expressions can be nested.
+     * @param maxExpressionDepth the deepest nesting of operators
+     */
+    public void setMaxExpressionDepth(int maxExpressionDepth)
+    {
+        this.maxExpressionDepth = maxExpressionDepth;
+    }
+
+    /**
+     * Sets the largest number of times a WHILE loop runs.
+     * @param maxLoopCount the largest loop count
+     */
+    public void setMaxLoopCount(int maxLoopCount)
+    {
+        this.maxLoopCount = maxLoopCount;
+    }
+
+    /**
+     * Sets the fraction of procedures that call themselves.
+     * @param recursionRate a number from 0 to 1
+     */
+    public void setRecursionRate(double recursionRate)
+    {
+        this.recursionRate = recursionRate;
+    }
+
+    /**
+     * Sets the largest first argument passed to a recursive procedure,
+     * which is how deeply it recurses.
+     * @param maxRecursion the deepest recursion
+     */
+    public void setMaxRecursion(int maxRecursion)
+    {
+        this.maxRecursion = maxRecursion;
+    }
+
+    /**
+     * Sets how many calls deep the program can go, counting recursion.
+     * @param maxCallDepth the deepest chain of active calls
+     */
+    public void setMaxCallDepth(int maxCallDepth)
+    {
+        this.maxCallDepth = maxCallDepth;
+    }
+
+    /**
+     * Sets roughly how many statements each procedure call may run,
+     * including the statements run by the calls it makes. The main block
+     * may run 50 times as many.
+     * @param workBudget the work budget, in statements run
+     */
+    public void setWorkBudget(long workBudget)
+    {
+        this.workBudget = workBudget;
+    }
+
+    /**
+     * Generates a program.
+     * @return the text of the program
+     */
+    public String generate()
+    {
+        random = new Random(seed);
+        procs = new ArrayList<Procedure>();
+        StringBuilder body = new StringBuilder();
+        for(int i = 0; i < procedures; i++)
+            body.append(procedure(i));
+        int mainCounters = mainBlock(body);
+
+        StringBuilder program = new StringBuilder();
+        List<String> declared = new ArrayList<String>();
+        for(int i = 0; i < globals; i++)
+            declared.add("g" + i);
+        for(int i = 0; i < mainCounters; i++)
+            declared.add("m" + i);
+        for(int i = 0; i < declared.size(); i += 10)
+            program.append("VAR ")
+                    .append(String.join(", ", declared.subList(i, Math.min(i + 10, declared.size()))))
+                    .append(";\n");
+        program.append('\n').append(body).append(".\n");
+        return program.toString();
+    }
+
+    /**
+     * Generates a program and writes it.
+     * @param writer where the program is written; it is left open
+     * @throws IOException if the program cannot be written
+     */
+    public void generate(Writer writer) throws IOException
+    {
+        writer.write(generate());
+        writer.flush();
+    }
+
+    /**
+     * Writes one procedure.
+     * @param index the position of the procedure in the program
+     * @return the text of the procedure
+     */
+    private String procedure(int index)
+    {
+        Procedure proc = new Procedure("p" + index);
+        proc.recursive = random.nextDouble() < recursionRate;
+        int params = (proc.recursive ? 1 : 0) + random.nextInt(maxParams + 1);
+        int locals = random.nextInt(maxLocals + 1);
+        proc.params = params;
+
+        current = proc;
+        readable = new ArrayList<String>();
+        writable = new ArrayList<String>();
+        List<String> paramNames = new ArrayList<String>();
+        for(int i = 0; i < params; i++)
+        {
+            paramNames.add("a" + i);
+            readable.add("a" + i);
+            if(! proc.recursive || i > 0)
+                writable.add("a" + i);
+        }
+        List<String> localNames = new ArrayList<String>();
+        for(int i = 0; i < locals; i++)
+        {
+            localNames.add("t" + i);
+            readable.add("t" + i);
+            writable.add("t" + i);
+        }
+        readable.add(proc.name);
+        writable.add(proc.name);
+        for(int i = 0; i < Math.min(globals, 4); i++)
+            readable.add(global());
+        if(random.nextInt(3) == 0)
+            writable.add(global());
+        counters = 0;
+        multiplier = 1;
+        work = 0;
+        budget = proc.recursive ? workBudget / (maxRecursion + 1) : workBudget;
+
+        StringBuilder body = new StringBuilder();
+        body.append("BEGIN\n");
+        int recursiveCall = proc.recursive ? random.nextInt(statements + 1) : -1;
+        for(int i = 0; i <= statements; i++)
+        {
+            if(i == recursiveCall)
+                recursiveCall(body);
+            else if(i < statements)
+                statement(body, 1, false);
+        }
+        body.append("END;\n\n");
+        proc.work = proc.recursive ? (work + 1) * (maxRecursion + 1) : work + 1;
+        if(proc.recursive)
+            proc.callDepth += maxRecursion;
+
+        StringBuilder text = new StringBuilder();
+        text.append("PROCEDURE ").append(proc.name).append('(')
+                .append(String.join(", ", paramNames)).append(");\n");
+        for(int i = 0; i < counters; i++)
+            localNames.add("c" + i);
+        if(! localNames.isEmpty())
+            text.append("VAR ").append(String.join(", ", localNames)).append(";\n");
+        text.append(body);
+        procs.add(proc);
+        current = null;
+        return text.toString();
+    }
+
+    /**
+     * Writes the recursive call of the current procedure, which is made
+     * only while its first parameter is positive.
+     * @param text where the statement is written
+     */
+    private void recursiveCall(StringBuilder text)
+    {
+        indent(text, 1);
+        text.append("IF a0 > 0 THEN ").append(pick(writable)).append(" := ")
+                .append(current.name).append("(a0 - 1");
+        for(int i = 1; i < current.params; i++)
+            text.append(", ").append(expression(Math.max(1, maxExpressionDepth - 2)));
+        text.append(");\n");
+        work++;
+    }
+
+    /**
+     * Writes the main block, which assigns only global variables.
+     * @param text where the main block is written
+     * @return the number of loop counters the main block uses, which are
+     *         global variables named m0, m1 and so on
+     */
+    private int mainBlock(StringBuilder text)
+    {
+        current = null;
+        readable = new ArrayList<String>();
+        writable = new ArrayList<String>();
+        for(int i = 0; i < globals; i++)
+        {
+            readable.add("g" + i);
+            writable.add("g" + i);
+        }
+        counters = 0;
+        multiplier = 1;
+        work = 0;
+        budget = 50 * workBudget;
+        text.append("BEGIN\n");
+        for(int i = 0; i < mainStatements; i++)
+            statement(text, 1, false);
+        for(int i = 0; i < Math.min(globals, 5); i++)
+            text.append("   WRITELN(g").append(i).append(");\n");
+        text.append("END;\n");
+        return counters;
+    }
+
+    /**
+     * Writes a random statement.
+     * @param text where the statement is written
+     * @param depth how deeply the statement is nested
+     * @param alone true if the statement must be a single statement, as
+     *              the statement of an IF must; otherwise, false
+     */
+    private void statement(StringBuilder text, int depth, boolean alone)
+    {
+        work += multiplier;
+        int choice = depth < maxNesting ? random.nextInt(20) : 10 + random.nextInt(10);
+        if(choice < 3)
+            block(text, depth);
+        else if(choice < 6)
+            ifStatement(text, depth);
+        else if(choice < 10)
+            whileStatement(text, depth, alone);
+        else if(choice < 11 || current == null && choice < 13)
+        {
+            indent(text, depth);
+            text.append("WRITELN(").append(expression(0)).append(");\n");
+        }
+        else
+        {
+            indent(text, depth);
+            text.append(pick(writable)).append(" := ").append(expression(0)).append(";\n");
+        }
+    }
+
+    /**
+     * Writes a BEGIN block of a few statements.
+     * @param text where the block is written
+     * @param depth how deeply the block is nested
+     */
+    private void block(StringBuilder text, int depth)
+    {
+        indent(text, depth);
+        text.append("BEGIN\n");
+        int count = 1 + random.nextInt(3);
+        for(int i = 0; i < count; i++)
+            statement(text, depth + 1, false);
+        indent(text, depth);
+        text.append("END;\n");
+    }
+
+    /**
+     * Writes an IF statement.
+     * @param text where the statement is written
+     * @param depth how deeply the statement is nested
+     */
+    private void ifStatement(StringBuilder text, int depth)
+    {
+        indent(text, depth);
+        text.append("IF ").append(condition()).append(" THEN\n");
+        statement(text, depth + 1, true);
+    }
+
+    /**
+     * Writes a WHILE loop that counts a fresh counter variable from 0 up to
+     * a constant. The loop runs only once if the loops it is nested in
+     * already run its body too many times.
+     * @param text where the loop is written
+     * @param depth how deeply the loop is nested
+     * @param alone true if the loop and the statement setting its counter
+     *              must be wrapped in a BEGIN block; otherwise, false
+     */
+    private void whileStatement(StringBuilder text, int depth, boolean alone)
+    {
+        String counter = (current == null ? "m" : "c") + counters;
+        counters++;
+        int count = 1 + random.nextInt(maxLoopCount);
+        if(multiplier * count > maxLoopProduct)
+            count = 1;
+        if(alone)
+        {
+            indent(text, depth);
+            text.append("BEGIN\n");
+            depth++;
+        }
+        indent(text, depth);
+        text.append(counter).append(" := 0;\n");
+        indent(text, depth);
+        text.append("WHILE ").append(counter).append(" < ").append(count).append(" DO\n");
+        indent(text, depth);
+        text.append("BEGIN\n");
+        long outer = multiplier;
+        multiplier *= count;
+        int size = 1 + random.nextInt(3);
+        for(int i = 0; i < size; i++)
+            statement(text, depth + 1, false);
+        indent(text, depth + 1);
+        text.append(counter).append(" := ").append(counter).append(" + 1;\n");
+        work += 2 * multiplier;
+        multiplier = outer;
+        indent(text, depth);
+        text.append("END;\n");
+        if(alone)
+        {
+            indent(text, depth - 1);
+            text.append("END;\n");
+        }
+    }
+
+    /**
+     * Writes a random comparison.
+     * @return the text of the condition
+     */
+    private String condition()
+    {
+        String[] relops = {"=", "<>", "<", ">", "<=", ">="};
+        return expression(maxExpressionDepth / 2) + " " + relops[random.nextInt(relops.length)] +
+                " " + expression(maxExpressionDepth / 2);
+    }
+
+    /**
+     * Writes a random expression, which is nested at most as deeply as the
+     * settings allow and has a limited number of nodes.
+     * @param depth how deeply the expression is nested already
+     * @return the text of the expression
+     */
+    private String expression(int depth)
+    {
+        if(depth == 0)
+            expressionNodes = 0;
+        expressionNodes++;
+        if(depth >= maxExpressionDepth || expressionNodes > 3 * maxExpressionDepth ||
+                depth > 0 && random.nextInt(4) == 0)
+            return factor(depth);
+        String left = expression(depth + 1);
+        int op = random.nextInt(6);
+        if(op == 4 || op == 5)
+            return "(" + left + (op == 4 ? " / " : " mod ") +
+                    DIVISORS[random.nextInt(DIVISORS.length)] + ")";
+        String right = random.nextInt(3) == 0 ? expression(depth + 1) : factor(depth + 1);
+        String[] ops = {" + ", " - ", " * ", " - "};
+        String text = "(" + left + ops[op] + right + ")";
+        return random.nextInt(12) == 0 ? "-" + text : text;
+    }
+
+    /**
+     * Writes a number, a variable or a call of a procedure that fits in the
+     * remaining work budget.
+     * @param depth how deeply the factor is nested
+     * @return the text of the factor
+     */
+    private String factor(int depth)
+    {
+        int choice = random.nextInt(10);
+        if(choice < 2 && ! procs.isEmpty())
+        {
+            String call = call(depth);
+            if(call != null)
+                return call;
+        }
+        if(choice < 6 && ! readable.isEmpty())
+            return pick(readable);
+        return Integer.toString(random.nextInt(100));
+    }
+
+    /**
+     * Writes a call of a procedure declared earlier, if one of the
+     * procedures tried fits in the work budget and the call depth.
+     * @param depth how deeply the call is nested in its expression
+     * @return the text of the call, or null if no call is made
+     */
+    private String call(int depth)
+    {
+        for(int tries = 0; tries < 4; tries++)
+        {
+            Procedure callee = procs.get(procs.size() - 1 - random.nextInt(Math.min(procs.size(),
+                    50)));
+            int callDepth = callee.callDepth + 1;
+            long cost = callee.work * multiplier;
+            if(callDepth > maxCallDepth || work + cost > budget)
+                continue;
+            work += cost;
+            if(current != null)
+                current.callDepth = Math.max(current.callDepth, callDepth);
+            StringBuilder text = new StringBuilder(callee.name).append('(');
+            for(int i = 0; i < callee.params; i++)
+            {
+                if(i > 0)
+                    text.append(", ");
+                if(i == 0 && callee.recursive)
+                    text.append(random.nextInt(maxRecursion + 1));
+                else
+                    text.append(expression(Math.max(depth + 1, maxExpressionDepth - 2)));
+            }
+            return text.append(')').toString();
+        }
+        return null;
+    }
+
+    /**
+     * Picks a random global variable.
+     * @return the name of the variable
+     */
+    private String global()
+    {
+        return "g" + random.nextInt(globals);
+    }
+
+    /**
+     * Picks a random name from a list.
+     * @param names the list, which is not empty
+     * @return the name
+     */
+    private String pick(List<String> names)
+    {
+        return names.get(random.nextInt(names.size()));
+    }
+
+    /**
+     * Indents a line.
+     * @param text where the indentation is written
+     * @param depth the level of indentation
+     */
+    private static void indent(StringBuilder text, int depth)
+    {
+        for(int i = 0; i < depth; i++)
+            text.append("   ");
+    }
+
+    /**
+     * Writes preset programs to files.
+     * @param args the name of a preset or "all" (the default), an optional
+     *             output directory and an optional seed to use instead of
+     *             each preset's own
+     * @throws IOException if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        String which = args.length > 0 ? args[0] : "all";
+        File dir = new File(args.length > 1 ? args[1] : ".");
+        dir.mkdirs();
+        Map<String, ProgramGenerator> generators = new LinkedHashMap<String, ProgramGenerator>();
+        for(String name: PRESETS)
+            if(which.equals("all") || which.equals(name))
+                generators.put(name, preset(name));
+        if(generators.isEmpty())
+            generators.put(which, preset(which));
+        for(Map.Entry<String, ProgramGenerator> entry: generators.entrySet())
+        {
+            if(args.length > 2)
+                entry.getValue().setSeed(Long.parseLong(args[2]));
+            String program = entry.getValue().generate();
+            File file = new File(dir, entry.getKey() + ".txt");
+            try(Writer out = new FileWriter(file))
+            {
+                out.write(program);
+            }
+            System.out.printf("%-12s %7d lines -> %s%n", entry.getKey(),
+                    program.split("\n").length, file);
+        }
+    }
+
+    /**
+     * What the generator knows about a procedure it has written.
+     */
+    private static class Procedure
+    {
+        private String name;
+        private int params;
+        private boolean recursive;
+        private long work;
+        private int callDepth;
+
+        /**
+         * Constructor for a Procedure.
+         * @param name the name of the procedure
+         */
+        Procedure(String name)
+        {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import generator.ProgramGenerator;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The BenchmarkInputs class is the JMH state shared by the compiler's
+ * benchmarks: the name of the PASCAL program to run each benchmark on,
+ * and a way to read that program into memory, so that no file reading is
+ * timed. The programs are every parserTest file, three synthetic programs
+ * (a large file of assignments, as in ScannerBenchmark, an identifier- and
+ * call-heavy program, as in ParserBenchmark, and a loop-heavy program, as
+ * in VirtualMachineBenchmark) and every ProgramGenerator preset.
+ *
+ * The parserTest files are read from the directory named by the
+ * parserTests system property (ast/parserTests by default), which the
+ * build sets.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+@State(Scope.Benchmark)
+public abstract class BenchmarkInputs
+{
+    /**
+     * The program that the benchmark runs on.
+     */
+    @Param({"parserTest1", "parserTest2", "parserTest3", "parserTest4", "parserTest5",
+            "parserTest6", "parserTest7", "parserTest8", "parserTest9",
+            "synthetic-assignments", "synthetic-calls", "synthetic-loops",
+            "generated-small", "generated-wide", "generated-deep", "generated-expressions",
+            "generated-recursive", "generated-large"})
+    public String input;
+
+    /**
+     * Reads the text of a benchmark input.
+     * @param input the name of the input
+     * @return the PASCAL source
+     * @throws IOException if the input cannot be read or written
+     */
+    static String read(String input) throws IOException
+    {
+        if(input.startsWith("parserTest"))
+        {
+            File dir = new File(System.getProperty("parserTests", "ast/parserTests"));
+            return Files.readString(new File(dir, input + ".txt").toPath());
+        }
+        if(input.startsWith("generated-"))
+            return ProgramGenerator.preset(input.substring("generated-".length())).generate();
+        if(input.equals("synthetic-loops"))
+            return VirtualMachineBenchmark.LOOP_PROGRAM;
+        Path path = Files.createTempFile("benchmarkInputs", ".txt");
+        try
+        {
+            if(input.equals("synthetic-assignments"))
+                ScannerBenchmark.writeSyntheticSource(path, 1);
+            else if(input.equals("synthetic-calls"))
+                ParserBenchmark.writeIdentifierHeavySource(path, 20000);
+            else
+                throw new IllegalArgumentException("Unknown benchmark input " + input);
+            return Files.readString(path);
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+import ast.Program;
+import emitter.Emitter;
+import vm.Bytecode;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The EmitterBenchmarks class measures how long it takes to compile a
+ * parsed program: to MIPS with its procedures compiled one after another
+ * and in parallel on the common ForkJoinPool, emitting into a stream that
+ * keeps nothing, and to Bytecode for the VirtualMachine.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EmitterBenchmarks extends BenchmarkInputs
+{
+    private Program program;
+
+    /**
+     * Parses the input.
+     * @throws IOException if the input cannot be read
+     */
+    @Setup(Level.Trial)
+    public void load() throws IOException
+    {
+        program = new Parser(new Scanner(read(input))).parseProgram();
+    }
+
+    /**
+     * Compiles the program to MIPS on one thread.
+     * @param bh receives the Emitter
+     */
+    @Benchmark
+    public void compile(Blackhole bh)
+    {
+        Emitter e = new Emitter(OutputStream.nullOutputStream());
+        program.compile(e);
+        e.close();
+        bh.consume(e);
+    }
+
+    /**
+     * Compiles the program to MIPS, with its procedures compiled in
+     * parallel.
+     * @param bh receives the Emitter
+     */
+    @Benchmark
+    public void compileParallel(Blackhole bh)
+    {
+        Emitter e = new Emitter(OutputStream.nullOutputStream());
+        program.compile(e, ForkJoinPool.commonPool());
+        e.close();
+        bh.consume(e);
+    }
+
+    /**
+     * Compiles the program to Bytecode.
+     * @return the Bytecode, which JMH consumes
+     */
+    @Benchmark
+    public Bytecode compileBytecode()
+    {
+        Bytecode code = new Bytecode();
+        program.compile(code);
+        return code;
+    }
+}
@@ -0,0 +1,77 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+import ast.MemoCache;
+import ast.Program;
+import environment.Environment;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The InterpreterBenchmarks class measures how long Program.exec() takes
+ * to run a parsed program, as it runs by default and with memoized calls
+ * of pure procedures (whose caches are emptied before each run, so no run
+ * benefits from the one before). WRITELN output is discarded.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InterpreterBenchmarks extends BenchmarkInputs
+{
+    private Program program;
+    private PrintStream stdout;
+
+    /**
+     * Parses the input and discards standard output.
+     * @throws IOException if the input cannot be read
+     */
+    @Setup(Level.Trial)
+    public void load() throws IOException
+    {
+        program = new Parser(new Scanner(read(input))).parseProgram();
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Puts standard output back.
+     */
+    @TearDown(Level.Trial)
+    public void restore()
+    {
+        System.setOut(stdout);
+    }
+
+    /**
+     * Runs the program with exec().
+     * @param bh receives the global Environment
+     */
+    @Benchmark
+    public void exec(Blackhole bh)
+    {
+        Environment env = new Environment();
+        program.exec(env);
+        bh.consume(env);
+    }
+
+    /**
+     * Runs the program with exec(), memoizing calls of pure procedures.
+     * @param bh receives the global Environment and the number of misses
+     */
+    @Benchmark
+    public void execMemoized(Blackhole bh)
+    {
+        program.setMemoCapacity(MemoCache.DEFAULT_CAPACITY);
+        Environment env = new Environment();
+        program.exec(env);
+        bh.consume(env);
+        bh.consume(program.getMemoMisses());
+    }
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import parser.ParallelParser;
+import ast.Program;
+import generator.ProgramGenerator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ParallelParserBenchmarks class shows how parse time scales with the
+ * number of threads: a ProgramGenerator preset is parsed by a
+ * ParallelParser on pools of 1, 2, 4 and 8 threads. ParserBenchmarks gives
+ * the time of the plain Parser to compare with. Speedups beyond the number
+ * of processors should not be expected.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelParserBenchmarks
+{
+    /**
+     * The ProgramGenerator preset that is parsed.
+     */
+    @Param({"large"})
+    public String preset;
+
+    /**
+     * The number of threads in the pool.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private String source;
+    private ForkJoinPool pool;
+    private ParallelParser parser;
+
+    /**
+     * Generates the program and starts the pool.
+     */
+    @Setup(Level.Trial)
+    public void start()
+    {
+        source = ProgramGenerator.preset(preset).generate();
+        pool = new ForkJoinPool(threads);
+        parser = new ParallelParser(pool);
+    }
+
+    /**
+     * Shuts the pool down.
+     */
+    @TearDown(Level.Trial)
+    public void stop()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Parses the program on the pool.
+     * @return the Program, which JMH consumes
+     */
+    @Benchmark
+    public Program parseParallel()
+    {
+        return parser.parseProgram(source);
+    }
+}
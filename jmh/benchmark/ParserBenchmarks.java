@@ -0,0 +1,57 @@
+package benchmark;
+
+import scanner.*;
+import parser.Parser;
+import parser.ParallelParser;
+import ast.Program;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ParserBenchmarks class measures how long it takes to scan and parse
+ * a whole program, with a Parser on one thread and with a ParallelParser
+ * on the common ForkJoinPool.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmarks extends BenchmarkInputs
+{
+    private String source;
+
+    /**
+     * Reads the input into memory.
+     * @throws IOException if the input cannot be read
+     */
+    @Setup(Level.Trial)
+    public void load() throws IOException
+    {
+        source = read(input);
+    }
+
+    /**
+     * Parses the input with a Parser.
+     * @return the Program, which JMH consumes
+     */
+    @Benchmark
+    public Program parseProgram()
+    {
+        return new Parser(new Scanner(source)).parseProgram();
+    }
+
+    /**
+     * Parses the input with a ParallelParser on the common pool.
+     * @return the Program, which JMH consumes
+     */
+    @Benchmark
+    public Program parseParallel()
+    {
+        return new ParallelParser(ForkJoinPool.commonPool()).parseProgram(source);
+    }
+}
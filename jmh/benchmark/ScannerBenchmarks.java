@@ -0,0 +1,93 @@
+package benchmark;
+
+import scanner.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+
+/**
+ * The ScannerBenchmarks class measures how many tokens per second the
+ * Scanner produces, both through nextToken() (as in the Scanner's usage,
+ * while(scanner.hasNext()) { scanner.nextToken(); }) and through scan(),
+ * which the Parser uses. Each operation scans a whole input; the tokens
+ * are counted by a JMH auxiliary counter, so the tokens score is in
+ * tokens per second.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ScannerBenchmarks extends BenchmarkInputs
+{
+    private String source;
+
+    /**
+     * A TokenCounter counts the tokens scanned by one thread in an
+     * iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class TokenCounter
+    {
+        /**
+         * The number of tokens scanned.
+         */
+        public long tokens;
+
+        /**
+         * Starts an iteration's count at 0.
+         */
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            tokens = 0;
+        }
+    }
+
+    /**
+     * Reads the input into memory.
+     * @throws IOException if the input cannot be read
+     */
+    @Setup(Level.Trial)
+    public void load() throws IOException
+    {
+        source = read(input);
+    }
+
+    /**
+     * Scans the whole input with nextToken().
+     * @param counter counts the tokens
+     * @param bh receives the text of every token
+     * @throws ScanErrorException if the input cannot be scanned
+     */
+    @Benchmark
+    public void nextToken(TokenCounter counter, Blackhole bh) throws ScanErrorException
+    {
+        Scanner scanner = new Scanner(source);
+        while(scanner.hasNext())
+        {
+            bh.consume(scanner.nextToken());
+            counter.tokens++;
+        }
+    }
+
+    /**
+     * Scans the whole input with scan().
+     * @param counter counts the tokens
+     * @param bh receives every Token
+     * @throws ScanErrorException if the input cannot be scanned
+     */
+    @Benchmark
+    public void scan(TokenCounter counter, Blackhole bh) throws ScanErrorException
+    {
+        Scanner scanner = new Scanner(source);
+        Token token;
+        while((token = scanner.scan()).getKind() != Token.Kind.EOF)
+        {
+            bh.consume(token);
+            counter.tokens++;
+        }
+    }
+}
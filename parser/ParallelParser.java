@@ -0,0 +1,226 @@
+package parser;
+
+import scanner.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import ast.*;
+
+/**
+ * The ParallelParser class parses a PASCAL program on the threads of a
+ * ForkJoinPool. A quick pass over the source finds where each PROCEDURE
+ * keyword starts (skipping comments, and stopping at the first period, as
+ * the Scanner does), and the source is cut at some of those places into
+ * a few slices of similar length per thread. Each slice is scanned and
+ * parsed by a Scanner and Parser of its own; the first slice also holds
+ * the VAR declarations, and the last one also holds the main statement.
+ *
+ * The ProcedureDeclarations of the slices are put back together in order,
+ * so the Program is the same as Parser.parseProgram() would give. If any
+ * slice cannot be parsed, the whole source is parsed again by a Parser on
+ * the calling thread, so that a program with errors is reported just as
+ * Parser.parseProgram() would report it (a PROCEDURE where a statement
+ * should be, for instance, would otherwise cut a slice short).
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class ParallelParser
+{
+    private static final int SLICES_PER_THREAD = 4;
+    private static final String PROCEDURE = "PROCEDURE";
+
+    private ForkJoinPool pool;
+
+    /**
+     * Constructor for a ParallelParser.
+     * @param pool the pool whose threads parse the slices
+     */
+    public ParallelParser(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * Parses one full PASCAL program.
+     * @param source the text of the program
+     * @return the Program that was parsed
+     * @throws IllegalArgumentException if the program cannot be parsed
+     */
+    public Program parseProgram(String source) throws IllegalArgumentException
+    {
+        List<Integer> cuts = findCuts(source);
+        List<Slice> slices = new ArrayList<Slice>();
+        int line = 1;
+        int lineStart = 0;
+        int pos = 0;
+        for(int i = 0; i < cuts.size(); i++)
+        {
+            int start = cuts.get(i);
+            for(; pos < start; pos++)
+            {
+                if(source.charAt(pos) == '\n')
+                {
+                    line++;
+                    lineStart = pos + 1;
+                }
+            }
+            int end = i + 1 < cuts.size() ? cuts.get(i + 1) : source.length();
+            slices.add(new Slice(source.substring(start, end), line, start - lineStart + 1,
+                    i == 0, i == cuts.size() - 1));
+        }
+
+        List<VariableDeclaration> vars = null;
+        List<ProcedureDeclaration> procDecList = new ArrayList<ProcedureDeclaration>();
+        Statement statement = null;
+        for(Future<Slice> result: pool.invokeAll(slices))
+        {
+            Slice slice = join(result);
+            if(slice.error != null)
+                return new Parser(new Scanner(source)).parseProgram();
+            if(slice.vars != null)
+                vars = slice.vars;
+            procDecList.addAll(slice.procDecList);
+            if(slice.statement != null)
+                statement = slice.statement;
+        }
+        Program program = new Program(vars, procDecList, statement);
+        program.resolve();
+        return program;
+    }
+
+    /**
+     * Chooses where to cut the source: at the start, and then at the first
+     * PROCEDURE keyword after each stretch of about the length that gives
+     * SLICES_PER_THREAD slices per thread of the pool.
+     * @param source the text of the program
+     * @return the position at which each slice starts, in order
+     */
+    private List<Integer> findCuts(String source)
+    {
+        int end = source.indexOf('.');
+        if(end < 0)
+            end = source.length();
+        int sliceLength = Math.max(1, end / (pool.getParallelism() * SLICES_PER_THREAD));
+        List<Integer> cuts = new ArrayList<Integer>();
+        cuts.add(0);
+        int i = 0;
+        while(i < end)
+        {
+            char c = source.charAt(i);
+            if(Scanner.isLetter(c))
+            {
+                int start = i;
+                while(i < end && (Scanner.isLetter(source.charAt(i)) ||
+                        Scanner.isDigit(source.charAt(i))))
+                    i++;
+                if(i - start == PROCEDURE.length() && source.startsWith(PROCEDURE, start) &&
+                        start - cuts.get(cuts.size() - 1) >= sliceLength)
+                    cuts.add(start);
+            }
+            else if(c == '/' && i + 1 < end && source.charAt(i + 1) == '/')
+            {
+                while(i < end && source.charAt(i) != '\n' && source.charAt(i) != '\r')
+                    i++;
+            }
+            else if(c == '/' && i + 1 < end && source.charAt(i + 1) == '*')
+            {
+                int close = source.indexOf("*/", i + 2);
+                i = close < 0 || close > end ? end : close + 2;
+            }
+            else
+            {
+                // digits are skipped one at a time, as a number never
+                // swallows the letters after it
+                i++;
+            }
+        }
+        return cuts;
+    }
+
+    /**
+     * Waits for a slice to be parsed.
+     * @param result the result of parsing the slice
+     * @return the parsed Slice
+     */
+    private static Slice join(Future<Slice> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * A Slice is one piece of the source, together with what was parsed
+     * from it or the error that stopped it from being parsed.
+     */
+    private static class Slice implements Callable<Slice>
+    {
+        private String text;
+        private int line;
+        private int column;
+        private boolean first;
+        private boolean last;
+        private List<VariableDeclaration> vars;
+        private List<ProcedureDeclaration> procDecList;
+        private Statement statement;
+        private RuntimeException error;
+
+        /**
+         * Constructor for a Slice.
+         * @param text the text of the slice
+         * @param line the line on which the slice starts
+         * @param column the column at which the slice starts
+         * @param first true if the slice starts the source
+         * @param last true if the slice ends the source
+         */
+        Slice(String text, int line, int column, boolean first, boolean last)
+        {
+            this.text = text;
+            this.line = line;
+            this.column = column;
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * Parses the slice: the VAR declarations if it is the first, then
+         * every procedure declaration, then the main statement if it is
+         * the last.
+         * @return this Slice
+         */
+        @Override
+        public Slice call()
+        {
+            try
+            {
+                Parser parser = new Parser(new Scanner(text, line, column));
+                if(first)
+                    vars = parser.parseVariableDeclarations();
+                procDecList = parser.parseProcedureDeclarations();
+                if(last)
+                    statement = parser.parseStatement();
+                parser.parseEnd();
+            }
+            catch(RuntimeException e)
+            {
+                error = e;
+            }
+            return this;
+        }
+    }
+}
@@ -17,7 +17,7 @@ public class Parser
 {
 
     private Scanner sc;
-    private String currToken;
+    private Token currToken;
 
     /**
      * Constructor for a Parser object, which is capable of
@@ -29,23 +29,60 @@ public class Parser
     public Parser(Scanner in)
     {
         sc = in;
-        currToken = sc.next();
+        advance();
     }
 
     /**
-     * Eats the current token if it matches a given expected token.
-     * @param expToken the expected token to be compared to currToken
-     * @throws IllegalArgumentException if expected token and currToken
-     *                                  do not match
+     * Moves on to the next token from the scanner.
+     * @throws IllegalArgumentException if the next token cannot be scanned
      */
-    private void eat(String expToken) throws IllegalArgumentException
+    private void advance() throws IllegalArgumentException
     {
-        if(expToken.equals(currToken))
+        try
         {
-            currToken = sc.next();
+            currToken = sc.scan();
+        }
+        catch(ScanErrorException e)
+        {
+            throw new IllegalArgumentException(e.getMessage(), e);
         }
-        else throw new IllegalArgumentException("Expected \"" + expToken + "\" but found \"" +
-                currToken + "\"");
+    }
+
+    /**
+     * Determines if the current token is of the given kind.
+     * @param kind the kind to be compared to currToken's kind
+     * @return true if currToken is of the given kind; otherwise, false
+     */
+    private boolean at(Token.Kind kind)
+    {
+        return currToken.getKind() == kind;
+    }
+
+    /**
+     * Eats the current token if it is of a given expected kind.
+     * @param expKind the expected kind to be compared to currToken's kind
+     * @throws IllegalArgumentException if expected kind and currToken's
+     *                                  kind do not match
+     */
+    private void eat(Token.Kind expKind) throws IllegalArgumentException
+    {
+        if(currToken.getKind() == expKind)
+            advance();
+        else throw new IllegalArgumentException("Expected " + expKind + " but found \"" +
+                currToken.getText() + "\" at line " + currToken.getLine() + ", column " +
+                currToken.getColumn());
+    }
+
+    /**
+     * Eats the current token, which must be an identifier.
+     * @return the name of the identifier that was eaten
+     * @throws IllegalArgumentException if currToken is not an identifier
+     */
+    private String eatIdentifier() throws IllegalArgumentException
+    {
+        String id = currToken.getText();
+        eat(Token.Kind.IDENTIFIER);
+        return id;
     }
 
     /**
@@ -57,64 +94,100 @@ public class Parser
      * @return the Program that was parsed
      */
     public Program parseProgram()
+    {
+        List<VariableDeclaration> vars = parseVariableDeclarations();
+        List<ProcedureDeclaration> procDecList = parseProcedureDeclarations();
+        Statement statement = parseStatement();
+        parseEnd();
+        Program program = new Program(vars, procDecList, statement);
+        program.resolve();
+        return program;
+    }
+
+    /**
+     * Parses the VAR declarations at the start of a program, if there are any.
+     * @postcondition all tokens in the declarations have been eaten
+     * @return the global variables that were declared, in order
+     */
+    List<VariableDeclaration> parseVariableDeclarations()
     {
         List<VariableDeclaration> vars = new ArrayList<>();
-        if(currToken.equals("("))
-            eat("(");
-        while(currToken.equals("VAR"))
+        if(at(Token.Kind.LEFT_PAREN))
+            eat(Token.Kind.LEFT_PAREN);
+        while(at(Token.Kind.VAR))
         {
-            eat("VAR");
-            String id = currToken;
-            eat(currToken);
-            vars.add(new VariableDeclaration(id));
-            while(! currToken.equals(";"))
+            eat(Token.Kind.VAR);
+            vars.add(new VariableDeclaration(eatIdentifier()));
+            while(! at(Token.Kind.SEMICOLON))
             {
-                eat(",");
-                id = currToken;
-                eat(currToken);
-                vars.add(new VariableDeclaration(id));
+                eat(Token.Kind.COMMA);
+                vars.add(new VariableDeclaration(eatIdentifier()));
             }
-            eat(";");
-            if(currToken.equals(")"))
-                eat(")");
+            eat(Token.Kind.SEMICOLON);
+            if(at(Token.Kind.RIGHT_PAREN))
+                eat(Token.Kind.RIGHT_PAREN);
         }
+        return vars;
+    }
+
+    /**
+     * Parses procedure declarations for as long as the current token is
+     * PROCEDURE.
+     * @postcondition all tokens in the declarations have been eaten
+     * @return the ProcedureDeclarations that were parsed, in order
+     */
+    List<ProcedureDeclaration> parseProcedureDeclarations()
+    {
         List<ProcedureDeclaration> procDecList = new ArrayList<ProcedureDeclaration>();
-        while(currToken.equals("PROCEDURE"))
+        while(at(Token.Kind.PROCEDURE))
+            procDecList.add(parseProcedureDeclaration());
+        return procDecList;
+    }
+
+    /**
+     * Parses one procedure declaration (name, parameters, local variables
+     * and body).
+     * @precondition currToken is PROCEDURE
+     * @postcondition all tokens in the ProcedureDeclaration have been eaten
+     * @return the ProcedureDeclaration that was parsed
+     */
+    public ProcedureDeclaration parseProcedureDeclaration()
+    {
+        eat(Token.Kind.PROCEDURE);
+        String procName = eatIdentifier();
+        eat(Token.Kind.LEFT_PAREN);
+        List<String> params = new ArrayList<>();
+        while(! at(Token.Kind.RIGHT_PAREN))
         {
-            eat("PROCEDURE");
-            String procName = currToken;
-            eat(currToken);
-            eat("(");
-            List<String> params = new ArrayList<>();
-            while(! currToken.equals(")"))
-            {
-                params.add(currToken);
-                eat(currToken);
-                if(currToken.equals(","))
-                    eat(",");
-            }
-            eat(")");
-            eat(";");
-            List<String> locVars = new ArrayList<>();
-            while(currToken.equals("VAR"))
+            params.add(eatIdentifier());
+            if(at(Token.Kind.COMMA))
+                eat(Token.Kind.COMMA);
+        }
+        eat(Token.Kind.RIGHT_PAREN);
+        eat(Token.Kind.SEMICOLON);
+        List<String> locVars = new ArrayList<>();
+        while(at(Token.Kind.VAR))
+        {
+            eat(Token.Kind.VAR);
+            locVars.add(eatIdentifier());
+            while(at(Token.Kind.COMMA))
             {
-                eat("VAR");
-                locVars.add(currToken);
-                eat(currToken);
-                while(currToken.equals(","))
-                {
-                    eat(",");
-                    locVars.add(currToken);
-                    eat(currToken);
-                }
-                eat(";");
+                eat(Token.Kind.COMMA);
+                locVars.add(eatIdentifier());
             }
-            Statement procStatement = parseStatement();
-            procDecList.add(new ProcedureDeclaration(procName, procStatement, params, locVars));
+            eat(Token.Kind.SEMICOLON);
         }
-        Statement statement = parseStatement();
-        eat(".");
-        return new Program(vars, procDecList, statement);
+        Statement procStatement = parseStatement();
+        return new ProcedureDeclaration(procName, procStatement, params, locVars);
+    }
+
+    /**
+     * Eats the end of the input.
+     * @throws IllegalArgumentException if anything is left in the input
+     */
+    void parseEnd() throws IllegalArgumentException
+    {
+        eat(Token.Kind.EOF);
     }
 
     /**
@@ -126,71 +199,119 @@ public class Parser
      */
     public Statement parseStatement()
     {
-        if(currToken.equals("WRITELN"))
+        switch(currToken.getKind())
         {
-            eat("WRITELN");
-            eat("(");
-            Expression exp = parseExpression();
-            eat(")");
-            eat(";");
-            return new Writeln(exp);
-        }
-        else if(currToken.equals("BEGIN"))
-        {
-            eat("BEGIN");
-            List<Statement> stmts = new ArrayList<Statement>();
-            while(! currToken.equals("END"))
-                stmts.add(parseStatement());
-            eat("END");
-            eat(";");
-            return new Block(stmts);
-        }
-        else if(currToken.equals("IF"))
-        {
-            eat("IF");
-            Expression exp1 = parseExpression();
-            String relop = currToken;
-            eat(currToken);
-            Expression exp2 = parseExpression();
-            Condition cond = new Condition(exp1, exp2, relop);
-            eat("THEN");
-            Statement condStmt = parseStatement();
-            return new If(cond, condStmt);
-        }
-        else if(currToken.equals("WHILE"))
-        {
-            eat("WHILE");
-            Expression exp1 = parseExpression();
-            String relop = currToken;
-            eat(currToken);
-            Expression exp2 = parseExpression();
-            Condition cond = new Condition(exp1, exp2, relop);
-            eat("DO");
-            Statement condStmt = parseStatement();
-            return new While(cond, condStmt);
+            case WRITELN:
+            {
+                eat(Token.Kind.WRITELN);
+                eat(Token.Kind.LEFT_PAREN);
+                Expression exp = parseExpression();
+                eat(Token.Kind.RIGHT_PAREN);
+                eat(Token.Kind.SEMICOLON);
+                return new Writeln(exp);
+            }
+            case BEGIN:
+            {
+                eat(Token.Kind.BEGIN);
+                List<Statement> stmts = new ArrayList<Statement>();
+                while(! at(Token.Kind.END))
+                    stmts.add(parseStatement());
+                eat(Token.Kind.END);
+                eat(Token.Kind.SEMICOLON);
+                return new Block(stmts);
+            }
+            case IF:
+            {
+                eat(Token.Kind.IF);
+                Condition cond = parseCondition();
+                eat(Token.Kind.THEN);
+                Statement condStmt = parseStatement();
+                return new If(cond, condStmt);
+            }
+            case WHILE:
+            {
+                eat(Token.Kind.WHILE);
+                Condition cond = parseCondition();
+                eat(Token.Kind.DO);
+                Statement condStmt = parseStatement();
+                return new While(cond, condStmt);
+            }
+            default:
+            {
+                String variable = eatIdentifier();
+                eat(Token.Kind.ASSIGN);
+                Expression expr = parseExpression();
+                eat(Token.Kind.SEMICOLON);
+                return new Assignment(variable, expr);
+            }
         }
-        else
+    }
+
+    /**
+     * Parses a PASCAL condition, which is two expressions separated
+     * by a relational operator.
+     * @precondition currToken is a (, -, number, or identifier
+     * @postcondition all tokens in the condition have been eaten
+     * @return the Condition that was parsed
+     */
+    private Condition parseCondition()
+    {
+        Expression exp1 = parseExpression();
+        Relop relop = parseRelop();
+        Expression exp2 = parseExpression();
+        return new Condition(exp1, exp2, relop);
+    }
+
+    /**
+     * Parses a relational operator.
+     * @precondition currToken is a relational operator
+     * @postcondition the relational operator has been eaten
+     * @return the Relop for the operator
+     * @throws IllegalArgumentException if currToken is not a relational operator
+     */
+    private Relop parseRelop() throws IllegalArgumentException
+    {
+        Relop relop;
+        switch(currToken.getKind())
         {
-            String variable = currToken;
-            eat(currToken);
-            eat(":=");
-            Expression expr = parseExpression();
-            eat(";");
-            return new Assignment(variable, expr);
+            case EQUAL:
+                relop = Relop.EQUAL;
+                break;
+            case NOT_EQUAL:
+                relop = Relop.NOT_EQUAL;
+                break;
+            case LESS:
+                relop = Relop.LESS;
+                break;
+            case GREATER:
+                relop = Relop.GREATER;
+                break;
+            case LESS_EQUAL:
+                relop = Relop.LESS_EQUAL;
+                break;
+            case GREATER_EQUAL:
+                relop = Relop.GREATER_EQUAL;
+                break;
+            default:
+                throw new IllegalArgumentException("Expected relational operator but found \"" +
+                        currToken.getText() + "\" at line " + currToken.getLine() + ", column " +
+                        currToken.getColumn());
         }
+        advance();
+        return relop;
     }
 
     /**
      * Parses a PASCAL number, which is just any numerical
-     * integer.
-     * @precondition current token is an integer
+     * integer. The scanner has already computed its value.
+     * @precondition current token is a number
      * @postcondition number token has been eaten
      * @return the Number that was parsed
      */
     private ast.Number parseNumber()
     {
-        int num = Integer.parseInt(currToken);
-        eat("" + num);
+        int num = currToken.getValue();
+        eat(Token.Kind.NUMBER);
         return new ast.Number(num);
     }
 
@@ -203,39 +324,34 @@ public class Parser
      */
     private Expression parseFactor()
     {
-        if(currToken.equals("("))
-        {
-            eat(currToken);
-            Expression expr = parseExpression();
-            eat(")");
-            return expr;
-        }
-        else if(currToken.equals("-"))
-        {
-            eat(currToken);
-            return new BinOp("*", new ast.Number(-1), parseFactor());
-        }
-        else
+        switch(currToken.getKind())
         {
-            try
+            case LEFT_PAREN:
             {
-                return parseNumber();
+                eat(Token.Kind.LEFT_PAREN);
+                Expression expr = parseExpression();
+                eat(Token.Kind.RIGHT_PAREN);
+                return expr;
             }
-            catch(NumberFormatException e)
+            case MINUS:
+                eat(Token.Kind.MINUS);
+                return new BinOp(Operator.MULTIPLY, new ast.Number(-1), parseFactor());
+            case NUMBER:
+                return parseNumber();
+            default:
             {
-                String id = currToken;
-                eat(currToken);
-                if(currToken.equals("("))
+                String id = eatIdentifier();
+                if(at(Token.Kind.LEFT_PAREN))
                 {
-                    eat("(");
+                    eat(Token.Kind.LEFT_PAREN);
                     List<Expression> args = new ArrayList<Expression>();
-                    while(! currToken.equals(")"))
+                    while(! at(Token.Kind.RIGHT_PAREN))
                     {
                         args.add(parseExpression());
-                        if(currToken.equals(","))
-                            eat(",");
+                        if(at(Token.Kind.COMMA))
+                            eat(Token.Kind.COMMA);
                     }
-                    eat(")");
+                    eat(Token.Kind.RIGHT_PAREN);
                     return new ProcedureCall(id, args);
                 }
                 return new Variable(id);
@@ -253,18 +369,26 @@ public class Parser
     private Expression parseTerm()
     {
         Expression factor = parseFactor();
-        while(currToken.equals("*") || currToken.equals("/") || currToken.equals("mod"))
+        while(true)
         {
-            String temp = currToken;
-            eat(currToken);
-            if(temp.equals("*"))
-                factor = new BinOp("*", factor, parseFactor());
-            else if(temp.equals("/"))
-                factor = new BinOp("/", factor, parseFactor());
-            else
-                factor = new BinOp("%", factor, parseFactor());
+            switch(currToken.getKind())
+            {
+                case TIMES:
+                    advance();
+                    factor = new BinOp(Operator.MULTIPLY, factor, parseFactor());
+                    break;
+                case DIVIDE:
+                    advance();
+                    factor = new BinOp(Operator.DIVIDE, factor, parseFactor());
+                    break;
+                case MOD:
+                    advance();
+                    factor = new BinOp(Operator.MODULO, factor, parseFactor());
+                    break;
+                default:
+                    return factor;
+            }
         }
-        return factor;
     }
 
     /**
@@ -277,17 +401,22 @@ public class Parser
     private Expression parseExpression()
     {
         Expression term = parseTerm();
-        while(currToken.equals("+") || currToken.equals("-"))
+        while(true)
         {
-            String temp = currToken;
-            eat(currToken);
-            if(temp.equals("+"))
-                term = new BinOp("+", term, parseTerm());
-            else
-                term = new BinOp("-", term, parseTerm());
+            switch(currToken.getKind())
+            {
+                case PLUS:
+                    advance();
+                    term = new BinOp(Operator.ADD, term, parseTerm());
+                    break;
+                case MINUS:
+                    advance();
+                    term = new BinOp(Operator.SUBTRACT, term, parseTerm());
+                    break;
+                default:
+                    return term;
+            }
         }
-        return term;
     }
 
 }
-
@@ -0,0 +1,142 @@
+package scanner;
+
+/**
+ * The LexemeTable class interns lexemes straight out of the Scanner's
+ * character buffer. A lexeme that has been seen before is returned as the
+ * existing String without allocating, so each distinct identifier is only
+ * ever built once no matter how often it appears in the input. Each entry
+ * also records its token kind, so keywords are recognized by the same
+ * lookup that interns them.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+class LexemeTable
+{
+    private String[] entries;
+    private Token.Kind[] kinds;
+    private int size;
+
+    /**
+     * Constructor for an empty LexemeTable.
+     */
+    LexemeTable()
+    {
+        entries = new String[256];
+        kinds = new Token.Kind[256];
+        size = 0;
+    }
+
+    /**
+     * Adds a lexeme that should always be scanned as the given kind.
+     * @param text the lexeme (such as a keyword)
+     * @param kind the kind of token the lexeme stands for
+     */
+    void reserve(String text, Token.Kind kind)
+    {
+        int slot = lookup(text.toCharArray(), text.length(), kind);
+        kinds[slot] = kind;
+    }
+
+    /**
+     * Gives the interned String stored in a slot returned by lookup.
+     * @param slot the slot of the entry
+     * @return the interned lexeme
+     */
+    String getText(int slot)
+    {
+        return entries[slot];
+    }
+
+    /**
+     * Gives the token kind stored in a slot returned by lookup.
+     * @param slot the slot of the entry
+     * @return the kind of the lexeme
+     */
+    Token.Kind getKind(int slot)
+    {
+        return kinds[slot];
+    }
+
+    /**
+     * Finds (or adds) the entry whose characters match the first
+     * length characters of the given buffer. The returned slot is only
+     * valid until the next call to lookup.
+     * @param buf the buffer holding the lexeme
+     * @param length the number of characters in the lexeme
+     * @param kind the kind to record if the lexeme has not been seen
+     * @return the slot holding the lexeme's entry
+     */
+    int lookup(char[] buf, int length, Token.Kind kind)
+    {
+        int hash = 0;
+        for(int i = 0; i < length; i++)
+            hash = 31 * hash + buf[i];
+        int mask = entries.length - 1;
+        int index = spread(hash) & mask;
+        while(entries[index] != null)
+        {
+            String entry = entries[index];
+            if(entry.hashCode() == hash && matches(entry, buf, length))
+                return index;
+            index = (index + 1) & mask;
+        }
+        String lexeme = new String(buf, 0, length);
+        entries[index] = lexeme;
+        kinds[index] = kind;
+        size++;
+        if(2 * size <= entries.length)
+            return index;
+        grow();
+        return lookup(buf, length, kind);
+    }
+
+    /**
+     * Determines if a String has exactly the characters in a buffer prefix.
+     * @param entry the String to compare
+     * @param buf the buffer holding the lexeme
+     * @param length the number of characters in the lexeme
+     * @return true if the characters match; otherwise, false
+     */
+    private static boolean matches(String entry, char[] buf, int length)
+    {
+        if(entry.length() != length)
+            return false;
+        for(int i = 0; i < length; i++)
+            if(entry.charAt(i) != buf[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * Mixes the high bits of a hash code into the low bits used for indexing.
+     * @param hash the String hash code
+     * @return the spread hash
+     */
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Doubles the capacity of the table, re-inserting every entry.
+     */
+    private void grow()
+    {
+        String[] oldEntries = entries;
+        Token.Kind[] oldKinds = kinds;
+        entries = new String[oldEntries.length * 2];
+        kinds = new Token.Kind[oldEntries.length * 2];
+        int mask = entries.length - 1;
+        for(int i = 0; i < oldEntries.length; i++)
+        {
+            if(oldEntries[i] == null)
+                continue;
+            int index = spread(oldEntries[i].hashCode()) & mask;
+            while(entries[index] != null)
+                index = (index + 1) & mask;
+            entries[index] = oldEntries[i];
+            kinds[index] = oldKinds[i];
+        }
+    }
+}
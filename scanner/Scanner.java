@@ -1,6 +1,10 @@
 package scanner;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Scanner is a simple scanner for Compilers and Interpreters - Lab Exercise 1.
@@ -13,12 +17,22 @@ import java.io.*;
  * Usage (iterating through all tokens of an input stream):
  * while(scanner.hasNext()) { scanner.nextToken(); }
  *
+ * Source files may also be scanned through a memory mapping with
+ * new Scanner(path), in which case the ASCII bytes are lexed directly
+ * without being decoded through a Reader.
+ *
  */
 public class Scanner
 {
     private BufferedReader in;
+    private ByteBuffer bytes;
     private char currentChar;
     private boolean eof;
+    private int line;
+    private int column;
+    private char[] lexeme;
+    private int lexemeLength;
+    private LexemeTable lexemes;
     /**
      * Scanner constructor for construction of a scanner that
      * uses an InputStream object for input.
@@ -29,9 +43,7 @@ public class Scanner
      */
     public Scanner(InputStream inStream)
     {
-        in = new BufferedReader(new InputStreamReader(inStream));
-        eof = false;
-        getNextChar();
+        this(new BufferedReader(new InputStreamReader(inStream)));
     }
     /**
      * Scanner constructor for constructing a scanner that
@@ -41,9 +53,79 @@ public class Scanner
      * @param inString the string to scan
      */
     public Scanner(String inString)
+    {
+        this(new BufferedReader(new StringReader(inString)));
+    }
+
+    /**
+     * Scanner constructor for constructing a scanner that scans a piece cut
+     * out of a larger input string, so that its tokens are given the lines
+     * and columns at which they appear in the larger input.
+     * Usage: Scanner lex = new Scanner(input.substring(start), line, column);
+     * @param inString the piece of input to scan
+     * @param line the line of the larger input on which the piece starts
+     * @param column the column at which the piece starts
+     */
+    public Scanner(String inString, int line, int column)
     {
         in = new BufferedReader(new StringReader(inString));
+        init(line, column);
+    }
+
+    /**
+     * Scanner constructor for constructing a scanner that lexes a source file
+     * through a read-only memory mapping. The file is treated as ASCII, so no
+     * characters are decoded or copied before scanning.
+     * Usage: Scanner lex = new Scanner(Paths.get(<file name>));
+     * @param path the path of the file to scan
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public Scanner(Path path) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE)
+                throw new IOException("File too large to map: " + path);
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        init(1, 1);
+    }
+
+    /**
+     * Scanner constructor shared by the reader-based constructors.
+     * @param reader the reader supplying the input characters
+     */
+    private Scanner(BufferedReader reader)
+    {
+        in = reader;
+        init(1, 1);
+    }
+
+    /**
+     * Sets up the lexeme buffer and position counters, then reads the
+     * first character of the input.
+     * @param firstLine the line of the first character
+     * @param firstColumn the column of the first character
+     */
+    private void init(int firstLine, int firstColumn)
+    {
         eof = false;
+        line = firstLine;
+        column = firstColumn - 1;
+        lexeme = new char[64];
+        lexemeLength = 0;
+        lexemes = new LexemeTable();
+        lexemes.reserve("VAR", Token.Kind.VAR);
+        lexemes.reserve("PROCEDURE", Token.Kind.PROCEDURE);
+        lexemes.reserve("BEGIN", Token.Kind.BEGIN);
+        lexemes.reserve("END", Token.Kind.END);
+        lexemes.reserve("IF", Token.Kind.IF);
+        lexemes.reserve("THEN", Token.Kind.THEN);
+        lexemes.reserve("WHILE", Token.Kind.WHILE);
+        lexemes.reserve("DO", Token.Kind.DO);
+        lexemes.reserve("WRITELN", Token.Kind.WRITELN);
+        lexemes.reserve("mod", Token.Kind.MOD);
         getNextChar();
     }
 
@@ -52,20 +134,40 @@ public class Scanner
      * true if the end of file or '.' is reached on the input stream.
      */
     private void getNextChar()
+    {
+        if(currentChar == '\n')
+        {
+            line++;
+            column = 0;
+        }
+        column++;
+        int inp;
+        if(bytes != null)
+            inp = bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+        else
+            inp = readChar();
+        if (inp == -1)
+            eof = true;
+        currentChar = (char) inp;
+        if(currentChar == '.')
+            eof = true;
+    }
+
+    /**
+     * Reads one character from the input reader.
+     * @return the character read, or -1 at the end of the input
+     */
+    private int readChar()
     {
         try
         {
-            int inp = in.read();
-            if (inp == -1)
-                eof = true;
-            currentChar = (char) inp;
-            if(currentChar == '.')
-                eof = true;
+            return in.read();
         }
         catch (IOException e)
         {
             e.printStackTrace();
             System.exit(-1);
+            return -1;
         }
     }
 
@@ -84,6 +186,24 @@ public class Scanner
                     "\" and found \"" + expected + ".\"");
     }
 
+    /**
+     * Appends the current character to the lexeme buffer and advances
+     * the reader past it, growing the buffer if it is full.
+     * @throws ScanErrorException thrown in the case of a scanning
+     *                            error
+     */
+    private void take() throws ScanErrorException
+    {
+        if(lexemeLength == lexeme.length)
+        {
+            char[] bigger = new char[lexeme.length * 2];
+            System.arraycopy(lexeme, 0, bigger, 0, lexemeLength);
+            lexeme = bigger;
+        }
+        lexeme[lexemeLength++] = currentChar;
+        eat(currentChar);
+    }
+
     /**
      * Determines if there is anything left in the input that has not
      * yet been read.
@@ -139,70 +259,145 @@ public class Scanner
     }
 
     /**
-     * Scans a complete number token from the input.
-     * @return a String representing a number lexeme, the next
+     * Scans a complete number token from the input, computing its
+     * value as the digits are read.
+     * @param startLine the line on which the token begins
+     * @param startColumn the column at which the token begins
+     * @return a Token representing a number lexeme, the next
      *         token from the input
-     * @throws ScanErrorException thrown in the case of a scanning
-     *                            error
+     * @throws ScanErrorException thrown if the number does not fit in
+     *                            an int
      */
-    private String scanNumber() throws ScanErrorException
+    private Token scanNumber(int startLine, int startColumn) throws ScanErrorException
     {
-        String lexeme = "";
+        long value = 0;
         while(hasNext() && isDigit(currentChar))
         {
-            lexeme += currentChar;
-            eat(currentChar);
+            if(value <= Integer.MAX_VALUE)
+                value = 10 * value + (currentChar - '0');
+            take();
         }
-        return lexeme;
+        if(value > Integer.MAX_VALUE)
+            throw new ScanErrorException("Integer literal out of range at line " +
+                    startLine + ", column " + startColumn + ".");
+        int slot = lexemes.lookup(lexeme, lexemeLength, Token.Kind.NUMBER);
+        return new Token(Token.Kind.NUMBER, lexemes.getText(slot), (int) value,
+                startLine, startColumn);
     }
 
     /**
-     * Scans an entire identifier token from the input.
-     * @return a String representing an identifier lexeme, the next
+     * Scans an entire identifier token from the input. Keywords are
+     * recognized by the same table lookup that interns the lexeme.
+     * @param startLine the line on which the token begins
+     * @param startColumn the column at which the token begins
+     * @return a Token representing an identifier lexeme, the next
      *         token from the input
      * @throws ScanErrorException thrown in the case of a scanning
      *                            error
      */
-    private String scanIdentifier() throws ScanErrorException
+    private Token scanIdentifier(int startLine, int startColumn) throws ScanErrorException
     {
-        String lexeme = "";
         while(hasNext() && (isDigit(currentChar) || isLetter(currentChar)))
-        {
-            lexeme += currentChar;
-            eat(currentChar);
-        }
-        return lexeme;
+            take();
+        int slot = lexemes.lookup(lexeme, lexemeLength, Token.Kind.IDENTIFIER);
+        return new Token(lexemes.getKind(slot), lexemes.getText(slot), 0,
+                startLine, startColumn);
     }
 
     /**
      * Scans an entire operator token from the input.
-     * @return a String representing an operator lexeme, the next
+     * @param startLine the line on which the token begins
+     * @param startColumn the column at which the token begins
+     * @return a Token representing an operator lexeme, the next
      *         token from the input
      * @throws ScanErrorException thrown in the case of a scanning
      *                            error
      */
-    private String scanOperator() throws ScanErrorException
+    private Token scanOperator(int startLine, int startColumn) throws ScanErrorException
     {
-        String lexeme = "" + currentChar;
-        eat(currentChar);
-        if(("=>").contains("" + currentChar) && ("+-=/*%><:").contains(lexeme))
+        char first = currentChar;
+        char second = 0;
+        take();
+        if((currentChar == '=' || currentChar == '>') && (first == '+' || first == '-' ||
+                first == '=' || first == '/' || first == '*' || first == '%' ||
+                first == '>' || first == '<' || first == ':'))
         {
-            lexeme += currentChar;
-            eat(currentChar);
+            second = currentChar;
+            take();
+        }
+        return makeOperator(operatorKind(first, second), startLine, startColumn);
+    }
+
+    /**
+     * Determines the kind of an operator from its characters.
+     * @param first the first character of the operator
+     * @param second the second character of the operator, or 0 if the
+     *               operator is a single character
+     * @return the Kind of the operator
+     */
+    private static Token.Kind operatorKind(char first, char second)
+    {
+        switch(first)
+        {
+            case '(':
+                return Token.Kind.LEFT_PAREN;
+            case ')':
+                return Token.Kind.RIGHT_PAREN;
+            case ',':
+                return Token.Kind.COMMA;
+            case ';':
+                return Token.Kind.SEMICOLON;
+            case '+':
+                return second == 0 ? Token.Kind.PLUS : Token.Kind.OPERATOR;
+            case '-':
+                return second == 0 ? Token.Kind.MINUS : Token.Kind.OPERATOR;
+            case '*':
+                return second == 0 ? Token.Kind.TIMES : Token.Kind.OPERATOR;
+            case '/':
+                return second == 0 ? Token.Kind.DIVIDE : Token.Kind.OPERATOR;
+            case ':':
+                return second == '=' ? Token.Kind.ASSIGN : Token.Kind.OPERATOR;
+            case '=':
+                return second == 0 ? Token.Kind.EQUAL : Token.Kind.OPERATOR;
+            case '<':
+                if(second == 0)
+                    return Token.Kind.LESS;
+                return second == '=' ? Token.Kind.LESS_EQUAL : Token.Kind.NOT_EQUAL;
+            case '>':
+                return second == 0 ? Token.Kind.GREATER :
+                        second == '=' ? Token.Kind.GREATER_EQUAL : Token.Kind.OPERATOR;
+            default:
+                return Token.Kind.OPERATOR;
         }
-        return lexeme;
+    }
+
+    /**
+     * Builds an operator Token from the lexeme buffer.
+     * @param kind the kind of the operator
+     * @param startLine the line on which the operator begins
+     * @param startColumn the column at which the operator begins
+     * @return the operator Token
+     */
+    private Token makeOperator(Token.Kind kind, int startLine, int startColumn)
+    {
+        int slot = lexemes.lookup(lexeme, lexemeLength, kind);
+        return new Token(kind, lexemes.getText(slot), 0, startLine, startColumn);
     }
 
     /**
      * Scans for single-line or multi-line comments, advancing the
-     * reader through an entire comment (if any).
-     * @return a String representing the next token from the input
+     * reader through an entire comment (if any). If the '/' does not
+     * begin a comment, it is scanned as an operator instead.
+     * @param startLine the line on which the '/' appears
+     * @param startColumn the column at which the '/' appears
+     * @return a Token for the "/" or "/=" operator, or null if a
+     *         comment was skipped
      * @throws ScanErrorException thrown in the case of a scanning
      *                            error
      */
-    private String scanComments() throws ScanErrorException
+    private Token scanComments(int startLine, int startColumn) throws ScanErrorException
     {
-        eat(currentChar);
+        take();
         if(currentChar == '/')
         {
             while(hasNext() && currentChar != '\n' && currentChar != '\r')
@@ -225,10 +420,63 @@ public class Scanner
             }
         }
         else if(currentChar == '=')
-            return "/=";
+        {
+            take();
+            return makeOperator(Token.Kind.OPERATOR, startLine, startColumn);
+        }
         else
-            return "/";
-        return nextToken();
+            return makeOperator(Token.Kind.DIVIDE, startLine, startColumn);
+        return null;
+    }
+
+    /**
+     * Retrieves the next token from the input stream, advancing the reader
+     * as necessary. Whitespace, comments and characters outside ASCII are
+     * skipped.
+     * @return the next Token from the input; a Token of kind EOF once the
+     *         input is exhausted
+     * @throws ScanErrorException thrown in the case of a scanning
+     *                            error, such as an unknown character or an
+     *                            integer literal out of range (the bad
+     *                            token is skipped, so scanning may go on)
+     */
+    public Token scan() throws ScanErrorException
+    {
+        while(true)
+        {
+            while (hasNext() && isWhiteSpace(currentChar))
+                eat(currentChar);
+            if (! hasNext())
+                return new Token(Token.Kind.EOF, ".", 0, line, column);
+            lexemeLength = 0;
+            int startLine = line;
+            int startColumn = column;
+            if (isDigit(currentChar))
+                return scanNumber(startLine, startColumn);
+            if(isLetter(currentChar))
+                return scanIdentifier(startLine, startColumn);
+            if(currentChar == '/')
+            {
+                Token operator = scanComments(startLine, startColumn);
+                if(operator != null)
+                    return operator;
+            }
+            else if (isSpecialCharacter(currentChar))
+                return scanOperator(startLine, startColumn);
+            else if (currentChar > '~')
+            {
+                // skipped, as a character outside ASCII is almost always a
+                // pasted no-break space (parserTest4.txt has several)
+                eat(currentChar);
+            }
+            else
+            {
+                char unknown = currentChar;
+                eat(currentChar);
+                throw new ScanErrorException("Unknown character \"" + unknown + "\" at line " +
+                        startLine + ", column " + startColumn + ".");
+            }
+        }
     }
 
     /**
@@ -241,24 +489,14 @@ public class Scanner
      */
     public String nextToken() throws ScanErrorException
     {
-        while (hasNext() && isWhiteSpace(currentChar))
-            eat(currentChar);
-        if (! hasNext())
-            return ".";
-        if (isDigit(currentChar))
-            return scanNumber();
-        if(isLetter(currentChar))
-            return scanIdentifier();
-        if(currentChar == '/')
-            return scanComments();
-        if (isSpecialCharacter(currentChar))
-            return scanOperator();
-        //char prev = currentChar;
-        eat(currentChar);
-        return nextToken();
-        //throw new ScanErrorException("Encountered an unknown character: \"" + prev + "\".");
+        return scan().getText();
     }
 
+    /**
+     * Retrieves the text of the next token, skipping past any token
+     * that could not be scanned.
+     * @return a String representing the next token from the input
+     */
     public String next()
     {
         try
@@ -272,5 +510,3 @@ public class Scanner
     }
 
 }
-
-
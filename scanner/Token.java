@@ -0,0 +1,102 @@
+package scanner;
+
+/**
+ * The Token class represents one lexeme produced by the Scanner, along with
+ * its kind, its numerical value (for number tokens) and the line and column
+ * at which it begins in the input.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class Token
+{
+    /**
+     * The Kind enum lists every category of token the Scanner can produce.
+     * Keywords and the operators used by the grammar each get their own kind;
+     * any other special character is scanned as a generic OPERATOR.
+     */
+    public enum Kind
+    {
+        NUMBER, IDENTIFIER,
+        VAR, PROCEDURE, BEGIN, END, IF, THEN, WHILE, DO, WRITELN, MOD,
+        LEFT_PAREN, RIGHT_PAREN, COMMA, SEMICOLON, ASSIGN,
+        PLUS, MINUS, TIMES, DIVIDE,
+        EQUAL, NOT_EQUAL, LESS, GREATER, LESS_EQUAL, GREATER_EQUAL,
+        OPERATOR, EOF
+    }
+
+    private Kind kind;
+    private String text;
+    private int value;
+    private int line;
+    private int column;
+
+    /**
+     * Constructor for a Token object.
+     * @param kind the category of this token
+     * @param text the interned lexeme of this token
+     * @param value the numerical value of this token (0 unless it is a number)
+     * @param line the line (starting at 1) on which this token begins
+     * @param column the column (starting at 1) at which this token begins
+     */
+    public Token(Kind kind, String text, int value, int line, int column)
+    {
+        this.kind = kind;
+        this.text = text;
+        this.value = value;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Gives the category of this token.
+     * @return the Kind of this token
+     */
+    public Kind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * Gives the lexeme of this token. Lexemes are interned, so two tokens
+     * with the same text share the same String.
+     * @return String denoting the lexeme
+     */
+    public String getText()
+    {
+        return text;
+    }
+
+    /**
+     * Gives the numerical value of this token.
+     * @return the integer value if this is a number token; otherwise, 0
+     */
+    public int getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Gives the line on which this token begins.
+     * @return the line number, starting at 1
+     */
+    public int getLine()
+    {
+        return line;
+    }
+
+    /**
+     * Gives the column at which this token begins.
+     * @return the column number, starting at 1
+     */
+    public int getColumn()
+    {
+        return column;
+    }
+
+    @Override
+    public String toString()
+    {
+        return kind + " \"" + text + "\" at " + line + ":" + column;
+    }
+}
@@ -0,0 +1,417 @@
+package simulator;
+
+import emitter.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MipsSimulator class runs the MIPS code written by an Emitter, standing
+ * in for SPIM or MARS so that compiled programs can be checked without one.
+ * It reads the text back into Instructions and interprets them. Only what
+ * the compiler emits is supported: .data with .word declarations, .text,
+ * labels, and the instructions listed in MipsOpcode. Syscalls 1 (print
+ * integer), 11 (print character) and 10 (exit) are supported.
+ *
+ * Code addresses are instruction indices, so jal and jr work as long as
+ * $ra is only saved and restored, as it is in compiled code.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class MipsSimulator
+{
+    private static final int DATA_START = 0x10010000;
+    private static final int STACK_START = 0x7ffffffc;
+    private static final long MAX_STEPS = 100_000_000L;
+
+    private List<Instruction> code;
+    private Map<String, Integer> codeLabels;
+    private Map<String, Integer> dataLabels;
+    private Map<Integer, Integer> memory;
+    private int[] registers;
+    private int hi;
+    private int lo;
+    private PrintStream out;
+
+    /**
+     * Constructor for a MipsSimulator that prints to standard output.
+     * @param source the MIPS code to run
+     * @throws IllegalArgumentException if the code cannot be read
+     */
+    public MipsSimulator(Reader source)
+    {
+        this(source, System.out);
+    }
+
+    /**
+     * Constructor for a MipsSimulator that prints to the given stream.
+     * @param source the MIPS code to run
+     * @param out the stream that printing syscalls write to
+     * @throws IllegalArgumentException if the code cannot be read
+     */
+    public MipsSimulator(Reader source, PrintStream out)
+    {
+        this.out = out;
+        code = new ArrayList<Instruction>();
+        codeLabels = new HashMap<String, Integer>();
+        dataLabels = new HashMap<String, Integer>();
+        memory = new HashMap<Integer, Integer>();
+        try
+        {
+            load(new BufferedReader(source));
+        }
+        catch(IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Constructor for a MipsSimulator that prints to the given stream.
+     * @param source the text of the MIPS code to run
+     * @param out the stream that printing syscalls write to
+     * @throws IllegalArgumentException if the code cannot be read
+     */
+    public MipsSimulator(String source, PrintStream out)
+    {
+        this(new StringReader(source), out);
+    }
+
+    /**
+     * Reads every line of the MIPS code, recording labels and data
+     * declarations and turning instructions into Instructions.
+     * @param in the MIPS code
+     * @throws IOException if the code cannot be read
+     * @throws IllegalArgumentException if a line cannot be understood
+     */
+    private void load(BufferedReader in) throws IOException
+    {
+        boolean inData = false;
+        int lineNumber = 0;
+        String line;
+        while((line = in.readLine()) != null)
+        {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if(comment >= 0)
+                line = line.substring(0, comment);
+            line = line.trim();
+            int colon = line.indexOf(':');
+            if(colon >= 0)
+            {
+                String label = line.substring(0, colon).trim();
+                if(inData)
+                    dataLabels.put(label, DATA_START + 4 * dataLabels.size());
+                else
+                    codeLabels.put(label, code.size());
+                line = line.substring(colon + 1).trim();
+            }
+            if(line.isEmpty())
+                continue;
+            if(line.startsWith("."))
+            {
+                if(line.startsWith(".data"))
+                    inData = true;
+                else if(line.startsWith(".text"))
+                    inData = false;
+                else if(! line.startsWith(".word") && ! line.startsWith(".globl"))
+                    throw new IllegalArgumentException("Unsupported directive \"" + line +
+                            "\" at line " + lineNumber);
+                continue;
+            }
+            code.add(parseInstruction(line, lineNumber));
+        }
+    }
+
+    /**
+     * Turns one line of MIPS code into an Instruction.
+     * @param line the line, without its label or comment
+     * @param lineNumber the number of the line, for error messages
+     * @return the Instruction
+     * @throws IllegalArgumentException if the line cannot be understood
+     */
+    private static Instruction parseInstruction(String line, int lineNumber)
+    {
+        String[] parts = line.split("[\\s,]+");
+        MipsOpcode opcode;
+        try
+        {
+            opcode = MipsOpcode.valueOf(parts[0].toUpperCase());
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Unsupported instruction \"" + parts[0] +
+                    "\" at line " + lineNumber);
+        }
+        Operand[] operands = new Operand[parts.length - 1];
+        for(int i = 1; i < parts.length; i++)
+            operands[i - 1] = parseOperand(parts[i], lineNumber);
+        return new Instruction(opcode, null, operands);
+    }
+
+    /**
+     * Turns one operand of a line of MIPS code into an Operand.
+     * @param text the operand, such as "$t0", "-4", "8($sp)" or "endIf1"
+     * @param lineNumber the number of the line, for error messages
+     * @return the Operand
+     * @throws IllegalArgumentException if the operand cannot be understood
+     */
+    private static Operand parseOperand(String text, int lineNumber)
+    {
+        int paren = text.indexOf('(');
+        if(paren >= 0 && text.endsWith(")"))
+        {
+            Register base = parseRegister(text.substring(paren + 1, text.length() - 1),
+                    lineNumber);
+            if(paren == 0)
+                return new Address(base);
+            return new Address(Integer.parseInt(text.substring(0, paren)), base);
+        }
+        if(text.startsWith("$"))
+            return parseRegister(text, lineNumber);
+        if(Character.isDigit(text.charAt(0)) || text.charAt(0) == '-')
+            return new Immediate(Integer.parseInt(text));
+        return new Label(text);
+    }
+
+    /**
+     * Turns the name of a register into a Register.
+     * @param text the name of the register, such as "$t0"
+     * @param lineNumber the number of the line, for error messages
+     * @return the Register
+     * @throws IllegalArgumentException if there is no such register
+     */
+    private static Register parseRegister(String text, int lineNumber)
+    {
+        for(Register reg: Register.values())
+            if(reg.toString().equals(text))
+                return reg;
+        throw new IllegalArgumentException("Unsupported register \"" + text +
+                "\" at line " + lineNumber);
+    }
+
+    /**
+     * Runs the program from the main label (or the first instruction) until
+     * it exits or runs off the end of the code.
+     * @return the number of instructions that were run
+     * @throws IllegalStateException if the program uses an undefined label,
+     *                               divides by zero, makes an unsupported
+     *                               syscall or runs for too long
+     */
+    public long run()
+    {
+        registers = new int[Register.values().length];
+        registers[Register.SP.ordinal()] = STACK_START;
+        memory.clear();
+        Integer main = codeLabels.get("main");
+        int pc = main == null ? 0 : main;
+        long steps = 0;
+        while(pc < code.size())
+        {
+            if(++steps > MAX_STEPS)
+                throw new IllegalStateException("Stopped after " + MAX_STEPS + " instructions");
+            Instruction instr = code.get(pc++);
+            switch(instr.getOpcode())
+            {
+                case LW:
+                    set(instr, 0, load(address(instr.getOperand(1))));
+                    break;
+                case SW:
+                    memory.put(address(instr.getOperand(1)), value(instr.getOperand(0)));
+                    break;
+                case LI:
+                    set(instr, 0, value(instr.getOperand(1)));
+                    break;
+                case LA:
+                    set(instr, 0, address(instr.getOperand(1)));
+                    break;
+                case MOVE:
+                    set(instr, 0, value(instr.getOperand(1)));
+                    break;
+                case ADDU:
+                    set(instr, 0, value(instr.getOperand(1)) + value(instr.getOperand(2)));
+                    break;
+                case SUBU:
+                    set(instr, 0, value(instr.getOperand(1)) - value(instr.getOperand(2)));
+                    break;
+                case SLL:
+                    set(instr, 0, value(instr.getOperand(1)) << value(instr.getOperand(2)));
+                    break;
+                case SRL:
+                    set(instr, 0, value(instr.getOperand(1)) >>> value(instr.getOperand(2)));
+                    break;
+                case SRA:
+                    set(instr, 0, value(instr.getOperand(1)) >> value(instr.getOperand(2)));
+                    break;
+                case MULT:
+                {
+                    long product = (long) value(instr.getOperand(0)) * value(instr.getOperand(1));
+                    lo = (int) product;
+                    hi = (int) (product >> 32);
+                    break;
+                }
+                case DIV:
+                {
+                    int divisor = value(instr.getOperand(1));
+                    if(divisor == 0)
+                        throw new IllegalStateException("Division by zero at instruction " +
+                                (pc - 1));
+                    lo = value(instr.getOperand(0)) / divisor;
+                    hi = value(instr.getOperand(0)) % divisor;
+                    break;
+                }
+                case MFLO:
+                    set(instr, 0, lo);
+                    break;
+                case MFHI:
+                    set(instr, 0, hi);
+                    break;
+                case J:
+                    pc = target(instr.getOperand(0));
+                    break;
+                case JAL:
+                    registers[Register.RA.ordinal()] = pc;
+                    pc = target(instr.getOperand(0));
+                    break;
+                case JR:
+                    pc = value(instr.getOperand(0));
+                    break;
+                case SYSCALL:
+                    if(! syscall())
+                        return steps;
+                    break;
+                default:
+                    if(branches(instr))
+                        pc = target(instr.getOperand(2));
+                    break;
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Determines if a branch Instruction is taken.
+     * @param instr the branch
+     * @return true if the branch condition holds; otherwise, false
+     */
+    private boolean branches(Instruction instr)
+    {
+        int left = value(instr.getOperand(0));
+        int right = value(instr.getOperand(1));
+        switch(instr.getOpcode())
+        {
+            case BEQ:
+                return left == right;
+            case BNE:
+                return left != right;
+            case BLT:
+                return left < right;
+            case BGT:
+                return left > right;
+            case BLE:
+                return left <= right;
+            default:
+                return left >= right;
+        }
+    }
+
+    /**
+     * Carries out the syscall selected by $v0.
+     * @return false if the program exits; otherwise, true
+     * @throws IllegalStateException if the syscall is not supported
+     */
+    private boolean syscall()
+    {
+        int service = registers[Register.V0.ordinal()];
+        int argument = registers[Register.A0.ordinal()];
+        switch(service)
+        {
+            case 1:
+                out.print(argument);
+                return true;
+            case 11:
+                out.print((char) argument);
+                return true;
+            case 10:
+                out.flush();
+                return false;
+            default:
+                throw new IllegalStateException("Unsupported syscall " + service);
+        }
+    }
+
+    /**
+     * Writes the register given by an operand of an Instruction.
+     * @param instr the Instruction
+     * @param index the position of the register operand
+     * @param value the new value of the register
+     */
+    private void set(Instruction instr, int index, int value)
+    {
+        registers[((Register) instr.getOperand(index)).ordinal()] = value;
+    }
+
+    /**
+     * Gives the value of a register or immediate operand.
+     * @param operand the operand
+     * @return the value
+     */
+    private int value(Operand operand)
+    {
+        if(operand instanceof Register)
+            return registers[((Register) operand).ordinal()];
+        return ((Immediate) operand).getValue();
+    }
+
+    /**
+     * Gives the memory address named by an Address or data Label operand.
+     * @param operand the operand
+     * @return the address
+     * @throws IllegalStateException if the label is not a data label
+     */
+    private int address(Operand operand)
+    {
+        if(operand instanceof Address)
+        {
+            Address address = (Address) operand;
+            return registers[address.getBase().ordinal()] + address.getOffset();
+        }
+        Integer address = dataLabels.get(((Label) operand).getName());
+        if(address == null)
+            throw new IllegalStateException("Undefined data label " + operand);
+        return address;
+    }
+
+    /**
+     * Gives the index of the instruction named by a code Label operand.
+     * @param operand the operand
+     * @return the index of the instruction
+     * @throws IllegalStateException if the label is not a code label
+     */
+    private int target(Operand operand)
+    {
+        Integer target = codeLabels.get(((Label) operand).getName());
+        if(target == null)
+            throw new IllegalStateException("Undefined label " + operand);
+        return target;
+    }
+
+    /**
+     * Reads a word of memory. Memory that was never written holds 0.
+     * @param address the address of the word
+     * @return the word
+     */
+    private int load(int address)
+    {
+        Integer word = memory.get(address);
+        return word == null ? 0 : word;
+    }
+}
@@ -0,0 +1,302 @@
+package simulator;
+
+import scanner.*;
+import parser.Parser;
+import parser.ParallelParser;
+import ast.Inliner;
+import ast.MemoCache;
+import ast.Program;
+import environment.Environment;
+import emitter.Emitter;
+import vm.Bytecode;
+import vm.VirtualMachine;
+import driver.BatchCompiler;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The SimulatorTester class checks the MIPS compiler and the bytecode
+ * VirtualMachine against the interpreter. Every parserTest file is
+ * compiled in every combination of register allocation, AST optimization
+ * and peephole optimization, and with inlining, the MIPS code is run on a
+ * MipsSimulator, and what it prints is compared with what exec() prints
+ * for the same Program. The file is also compiled to Bytecode, with and
+ * without AST optimization and inlining (the vm modes), and what the
+ * VirtualMachine prints is compared with exec() in the same way, as is
+ * what exec() prints with memoized calls of pure procedures (the memo
+ * mode). In
+ * every mode, the MIPS code compiled with procedures compiled in parallel
+ * must also be the same as the code compiled sequentially, and so must the
+ * code for the Program parsed by a ParallelParser. If a parserTest file
+ * has a .expected file next to it (as parserTest5.expected is next to
+ * parserTest5.txt), what exec() prints must also match that file.
+ * Finally, a BatchCompiler must compile only the first of several sources
+ * that share an output file, leaving its output intact.
+ *
+ * Usage: java simulator.SimulatorTester [parserTests directory]
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class SimulatorTester
+{
+    private static final String[] MODES = {"", "-r", "-O", "-p", "-r -O", "-r -p", "-O -p",
+                                           "-r -O -p", "-i", "-r -O -p -i",
+                                           "vm", "vm -O", "vm -i", "vm -O -i", "memo"};
+
+    /**
+     * Checks every parserTest file in every mode, printing one line per
+     * file and the details of each mismatch. Exits with status 1 if any
+     * mode of any file does not match.
+     * @param args an optional path to the parserTests directory
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        File dir = new File(args.length > 0 ? args[0] : "ast/parserTests");
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".txt"));
+        Arrays.sort(files);
+        int failures = 0;
+        for(File file: files)
+        {
+            String expected = interpret(file, false);
+            if(! matchesExpectedFile(file, expected))
+                failures++;
+            int passed = 0;
+            for(String mode: MODES)
+            {
+                String actual;
+                try
+                {
+                    if(mode.equals("memo"))
+                        actual = interpret(file, true);
+                    else if(mode.startsWith("vm"))
+                        actual = runBytecode(file, mode);
+                    else
+                        actual = simulate(file, mode);
+                }
+                catch(RuntimeException e)
+                {
+                    actual = e.toString();
+                }
+                if(actual.equals(expected))
+                    passed++;
+                else
+                {
+                    failures++;
+                    System.out.println(file.getName() + " [" + mode + "]: expected " +
+                            expected.replace('\n', ' ') + "but got " + actual.replace('\n', ' '));
+                }
+            }
+            System.out.printf("%-18s %d/%d modes match%n", file.getName(), passed, MODES.length);
+        }
+        if(files.length > 1)
+            failures += checkDuplicateOutputs(files[0], files[1]);
+        if(failures > 0)
+        {
+            System.out.println(failures + " mismatches");
+            System.exit(1);
+        }
+        System.out.println("All modes match");
+    }
+
+    /**
+     * Compares what exec() printed for a file with the file's .expected
+     * file, if it has one, and prints the details of a mismatch.
+     * @param file the PASCAL source file
+     * @param actual what exec() printed, with \n line endings
+     * @return true if the output matches or there is no .expected file;
+     *         otherwise, false
+     * @throws IOException if the .expected file cannot be read
+     */
+    private static boolean matchesExpectedFile(File file, String actual) throws IOException
+    {
+        String name = file.getName();
+        File expectedFile = new File(file.getParentFile(),
+                name.substring(0, name.lastIndexOf('.')) + ".expected");
+        if(! expectedFile.exists())
+            return true;
+        String expected = Files.readString(expectedFile.toPath()).replace("\r\n", "\n");
+        if(actual.equals(expected))
+            return true;
+        System.out.println(name + " [exec]: expected " + expected.replace('\n', ' ') +
+                "(from " + expectedFile.getName() + ") but got " + actual.replace('\n', ' '));
+        return false;
+    }
+
+    /**
+     * Checks that a BatchCompiler compiles only the first of several sources
+     * with the same output file. Copies of two files are compiled in one
+     * batch, on several threads, into one output directory: as a/dup.txt,
+     * b/dup.txt and a/dup.pas. The second and third must fail, and the
+     * output must be what a/dup.txt alone compiles to.
+     * @param first the file copied to a/dup.txt
+     * @param second the file copied to b/dup.txt and a/dup.pas
+     * @return the number of mismatches
+     * @throws IOException if a file cannot be read or written
+     */
+    private static int checkDuplicateOutputs(File first, File second) throws IOException
+    {
+        File dir = Files.createTempDirectory("duplicates").toFile();
+        File a = new File(dir, "a");
+        File b = new File(dir, "b");
+        a.mkdir();
+        b.mkdir();
+        File[] sources = {new File(a, "dup.txt"), new File(b, "dup.txt"), new File(a, "dup.pas")};
+        Files.copy(first.toPath(), sources[0].toPath());
+        Files.copy(second.toPath(), sources[1].toPath());
+        Files.copy(second.toPath(), sources[2].toPath());
+
+        BatchCompiler single = new BatchCompiler(1);
+        single.setOutputDirectory(a);
+        String expected = Files.readString(single.compile(sources[0]).getOutput().toPath());
+        BatchCompiler batch = new BatchCompiler(4);
+        batch.setOutputDirectory(dir);
+        List<BatchCompiler.Result> results = batch.compile(Arrays.asList(sources));
+
+        int failures = 0;
+        for(int i = 0; i < sources.length; i++)
+        {
+            if(results.get(i).isSuccess() != (i == 0))
+            {
+                failures++;
+                System.out.println("duplicate outputs: " + sources[i] + " should have " +
+                        (i == 0 ? "compiled, but got " + results.get(i).getError() : "failed"));
+            }
+        }
+        File output = results.get(0).getOutput();
+        String actual = output.exists() ? Files.readString(output.toPath()) : "no output";
+        if(! actual.equals(expected))
+        {
+            failures++;
+            System.out.println("duplicate outputs: " + output + " is not the output of " +
+                    sources[0]);
+        }
+        System.out.printf("%-18s %s%n", "duplicate outputs", failures == 0 ? "match" : "mismatch");
+        for(File d: new File[] {a, b, dir})
+        {
+            for(File f: d.listFiles())
+                f.delete();
+            d.delete();
+        }
+        return failures;
+    }
+
+    /**
+     * Runs a file with exec() and captures what it prints.
+     * @param file the PASCAL source file
+     * @param memoize true to memoize calls of pure procedures
+     * @return the printed output, with \n line endings
+     * @throws IOException if the file cannot be read
+     */
+    private static String interpret(File file, boolean memoize) throws IOException
+    {
+        Program program = parse(file);
+        if(memoize)
+            program.setMemoCapacity(MemoCache.DEFAULT_CAPACITY);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(bytes, true));
+        try
+        {
+            program.exec(new Environment());
+        }
+        finally
+        {
+            System.setOut(stdout);
+        }
+        return bytes.toString().replace(System.lineSeparator(), "\n");
+    }
+
+    /**
+     * Compiles a file to MIPS in the given mode, runs it on a MipsSimulator
+     * and captures what it prints.
+     * @param file the PASCAL source file
+     * @param mode the Tester flags for the mode: -r, -O, -p and/or -i
+     * @return the printed output
+     * @throws IOException if the file cannot be read
+     * @throws IllegalStateException if parsing or compiling procedures in
+     *                               parallel gives different MIPS code
+     */
+    private static String simulate(File file, String mode) throws IOException
+    {
+        Program program = parse(file);
+        Program parallel = new ParallelParser(ForkJoinPool.commonPool())
+                .parseProgram(Files.readString(file.toPath()));
+        if(mode.contains("-O"))
+        {
+            program.optimize();
+            parallel.optimize();
+        }
+        if(mode.contains("-i"))
+        {
+            program.inline(Inliner.DEFAULT_MAX_SIZE);
+            parallel.inline(Inliner.DEFAULT_MAX_SIZE);
+        }
+        String mips = compile(program, mode, null);
+        if(! mips.equals(compile(program, mode, ForkJoinPool.commonPool())))
+            throw new IllegalStateException("parallel compilation gives different MIPS code");
+        if(! mips.equals(compile(parallel, mode, null)))
+            throw new IllegalStateException("parallel parsing gives different MIPS code");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new MipsSimulator(mips, new PrintStream(bytes, true)).run();
+        return bytes.toString();
+    }
+
+    /**
+     * Compiles a file to Bytecode in the given mode, runs it on a
+     * VirtualMachine and captures what it prints.
+     * @param file the PASCAL source file
+     * @param mode the vm mode, with -O and/or -i
+     * @return the printed output, with \n line endings
+     * @throws IOException if the file cannot be read
+     */
+    private static String runBytecode(File file, String mode) throws IOException
+    {
+        Program program = parse(file);
+        if(mode.contains("-O"))
+            program.optimize();
+        if(mode.contains("-i"))
+            program.inline(Inliner.DEFAULT_MAX_SIZE);
+        Bytecode code = new Bytecode();
+        program.compile(code);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new VirtualMachine(code, new PrintStream(bytes, true)).run();
+        return bytes.toString().replace(System.lineSeparator(), "\n");
+    }
+
+    /**
+     * Compiles a Program to MIPS in the given mode.
+     * @param program the Program
+     * @param mode the Tester flags for the mode
+     * @param pool the pool that compiles the procedures, or null
+     * @return the MIPS code
+     */
+    private static String compile(Program program, String mode, ForkJoinPool pool)
+    {
+        StringWriter mips = new StringWriter();
+        Emitter e = new Emitter(mips, mode.contains("-r"));
+        e.setPeephole(mode.contains("-p"));
+        program.compile(e, pool);
+        e.close();
+        return mips.toString();
+    }
+
+    /**
+     * Parses a PASCAL source file.
+     * @param file the file
+     * @return the Program
+     * @throws IOException if the file cannot be read
+     */
+    private static Program parse(File file) throws IOException
+    {
+        try(InputStream in = new FileInputStream(file))
+        {
+            return new Parser(new Scanner(in)).parseProgram();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Bytecode class holds a Program lowered to a flat int array for the
+ * VirtualMachine, along with a table describing each compiled procedure.
+ * AST nodes append instructions through the emit methods; jumps refer to
+ * labels that are patched to code positions by link().
+ *
+ * While instructions are appended, Bytecode tracks the depth of the operand
+ * stack so that the VirtualMachine knows the most stack space main and each
+ * procedure can need. It also fuses a PUSH followed by an arithmetic
+ * instruction or conditional jump into that instruction's _CONSTANT form.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class Bytecode
+{
+    private int[] code;
+    private int size;
+    private int lastPush;
+    private List<Integer> labelPositions;
+    private List<Integer> fixups;
+    private List<Integer> callSites;
+    private Map<String, Integer> procIndexes;
+    private List<String> procNames;
+    private int[] procEntries;
+    private int[] procParamCounts;
+    private int[] procFrameSizes;
+    private int[] procReturnSlots;
+    private int[] procMaxStacks;
+    private int globalCount;
+    private int mainMaxStack;
+    private int currProc;
+    private int stackDepth;
+    private int maxStackDepth;
+
+    /**
+     * Constructor for an empty Bytecode, ready for main's instructions.
+     */
+    public Bytecode()
+    {
+        code = new int[256];
+        size = 0;
+        lastPush = -1;
+        labelPositions = new ArrayList<Integer>();
+        fixups = new ArrayList<Integer>();
+        callSites = new ArrayList<Integer>();
+        procIndexes = new HashMap<String, Integer>();
+        procNames = new ArrayList<String>();
+        procEntries = new int[8];
+        procParamCounts = new int[8];
+        procFrameSizes = new int[8];
+        procReturnSlots = new int[8];
+        procMaxStacks = new int[8];
+        currProc = -1;
+    }
+
+    /**
+     * Sets the number of global variable slots the program needs.
+     * @param globalCount the size of the global frame
+     */
+    public void setGlobalCount(int globalCount)
+    {
+        this.globalCount = globalCount;
+    }
+
+    /**
+     * Determines if instructions are currently being added to a procedure
+     * (rather than to main).
+     * @return true if inside a procedure; otherwise, false
+     */
+    public boolean inProcedure()
+    {
+        return currProc >= 0;
+    }
+
+    /**
+     * Appends an instruction that has no operand.
+     * @param opcode the Opcode of the instruction
+     */
+    public void emit(int opcode)
+    {
+        if(opcode >= Opcode.ADD && opcode <= Opcode.MODULO && lastPush == size - 2)
+        {
+            int value = code[size - 1];
+            size -= 2;
+            lastPush = -1;
+            append(opcode + Opcode.CONSTANT_OFFSET);
+            append(value);
+        }
+        else
+            append(opcode);
+        adjustStack(opcode);
+    }
+
+    /**
+     * Appends an instruction with an operand.
+     * @param opcode the Opcode of the instruction
+     * @param operand the operand of the instruction
+     */
+    public void emit(int opcode, int operand)
+    {
+        if(opcode == Opcode.PUSH)
+            lastPush = size;
+        append(opcode);
+        append(operand);
+        adjustStack(opcode);
+    }
+
+    /**
+     * Creates a new label that can be jumped to once it is placed.
+     * @return the id of the new label
+     */
+    public int newLabel()
+    {
+        labelPositions.add(-1);
+        return labelPositions.size() - 1;
+    }
+
+    /**
+     * Places a label at the position of the next instruction.
+     * @param label the id of the label
+     */
+    public void placeLabel(int label)
+    {
+        labelPositions.set(label, size);
+        lastPush = -1;
+    }
+
+    /**
+     * Appends a jump (conditional or not) to a label.
+     * @param opcode the jump Opcode
+     * @param label the id of the label to jump to
+     */
+    public void emitJump(int opcode, int label)
+    {
+        if(opcode != Opcode.JUMP && lastPush == size - 2)
+        {
+            int value = code[size - 1];
+            size -= 2;
+            lastPush = -1;
+            append(opcode + Opcode.CONSTANT_OFFSET);
+            append(value);
+        }
+        else
+            append(opcode);
+        fixups.add(size);
+        append(label);
+        adjustStack(opcode);
+    }
+
+    /**
+     * Appends a call to a procedure, which may not have been compiled yet.
+     * @param name the name of the procedure
+     * @param argCount the number of arguments already pushed
+     */
+    public void emitCall(String name, int argCount)
+    {
+        append(Opcode.CALL);
+        append(getProcedureIndex(name));
+        callSites.add(size - 1);
+        callSites.add(argCount);
+        stackDepth += 1 - argCount;
+        maxStackDepth = Math.max(maxStackDepth, stackDepth);
+    }
+
+    /**
+     * Starts the instructions of a procedure body at the current position.
+     * @param name the name of the procedure
+     * @param paramCount the number of parameters (the first frame slots)
+     * @param frameSize the number of slots in the procedure's frame
+     * @param returnSlot the frame slot holding the return value
+     */
+    public void beginProcedure(String name, int paramCount, int frameSize, int returnSlot)
+    {
+        finishSection();
+        currProc = getProcedureIndex(name);
+        procEntries[currProc] = size;
+        procParamCounts[currProc] = paramCount;
+        procFrameSizes[currProc] = frameSize;
+        procReturnSlots[currProc] = returnSlot;
+        stackDepth = 0;
+        maxStackDepth = 0;
+        lastPush = -1;
+    }
+
+    /**
+     * Ends the current procedure body with a RETURN instruction.
+     */
+    public void endProcedure()
+    {
+        emit(Opcode.RETURN, procReturnSlots[currProc]);
+    }
+
+    /**
+     * Patches every jump with the position of its label. Must be called
+     * once all instructions have been added.
+     * @throws IllegalArgumentException if a procedure is called with the
+     *                                  wrong number of arguments
+     */
+    public void link()
+    {
+        finishSection();
+        for(int fixup: fixups)
+            code[fixup] = labelPositions.get(code[fixup]);
+        fixups.clear();
+        for(int i = 0; i < callSites.size(); i += 2)
+        {
+            int proc = code[callSites.get(i)];
+            int argCount = callSites.get(i + 1);
+            if(procEntries[proc] >= 0 && procParamCounts[proc] != argCount)
+                throw new IllegalArgumentException("Procedure " + procNames.get(proc) +
+                        " expects " + procParamCounts[proc] + " arguments but is called with " +
+                        argCount);
+        }
+    }
+
+    /**
+     * Gives the instruction array (which may be longer than getSize()).
+     * @return the instructions
+     */
+    public int[] getCode()
+    {
+        return code;
+    }
+
+    /**
+     * Gives the number of ints of instructions and operands.
+     * @return the length of the bytecode
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Gives the size of the global frame.
+     * @return the number of global variable slots
+     */
+    public int getGlobalCount()
+    {
+        return globalCount;
+    }
+
+    /**
+     * Gives the deepest the operand stack can get while running main.
+     * @return the maximum operand stack depth of main
+     */
+    public int getMainMaxStack()
+    {
+        return mainMaxStack;
+    }
+
+    /**
+     * Gives the name of the procedure with the given index.
+     * @param proc the index of the procedure
+     * @return the procedure's name
+     */
+    public String getProcedureName(int proc)
+    {
+        return procNames.get(proc);
+    }
+
+    /**
+     * Gives the entry position of every procedure, indexed by the operand
+     * of CALL. A procedure that was called but never compiled has entry -1.
+     * @return the array of entry positions
+     */
+    public int[] getProcedureEntries()
+    {
+        return procEntries;
+    }
+
+    /**
+     * Gives the parameter count of every procedure.
+     * @return the array of parameter counts
+     */
+    public int[] getProcedureParamCounts()
+    {
+        return procParamCounts;
+    }
+
+    /**
+     * Gives the frame size of every procedure.
+     * @return the array of frame sizes
+     */
+    public int[] getProcedureFrameSizes()
+    {
+        return procFrameSizes;
+    }
+
+    /**
+     * Gives the return value slot of every procedure.
+     * @return the array of return slots
+     */
+    public int[] getProcedureReturnSlots()
+    {
+        return procReturnSlots;
+    }
+
+    /**
+     * Gives the deepest the operand stack can get in every procedure.
+     * @return the array of maximum operand stack depths
+     */
+    public int[] getProcedureMaxStacks()
+    {
+        return procMaxStacks;
+    }
+
+    /**
+     * Finds the index of a procedure, assigning one if the name is new.
+     * @param name the name of the procedure
+     * @return the index used as the operand of CALL
+     */
+    private int getProcedureIndex(String name)
+    {
+        Integer index = procIndexes.get(name);
+        if(index != null)
+            return index;
+        int proc = procNames.size();
+        procIndexes.put(name, proc);
+        procNames.add(name);
+        if(proc == procEntries.length)
+        {
+            int length = 2 * proc;
+            procEntries = Arrays.copyOf(procEntries, length);
+            procParamCounts = Arrays.copyOf(procParamCounts, length);
+            procFrameSizes = Arrays.copyOf(procFrameSizes, length);
+            procReturnSlots = Arrays.copyOf(procReturnSlots, length);
+            procMaxStacks = Arrays.copyOf(procMaxStacks, length);
+        }
+        procEntries[proc] = -1;
+        return proc;
+    }
+
+    /**
+     * Records the maximum stack depth of main or of the procedure
+     * that was being compiled.
+     */
+    private void finishSection()
+    {
+        if(currProc < 0)
+            mainMaxStack = Math.max(mainMaxStack, maxStackDepth);
+        else
+            procMaxStacks[currProc] = maxStackDepth;
+    }
+
+    /**
+     * Appends one int to the instruction array, growing it if needed.
+     * @param value the opcode or operand to append
+     */
+    private void append(int value)
+    {
+        if(size == code.length)
+            code = Arrays.copyOf(code, 2 * size);
+        code[size++] = value;
+    }
+
+    /**
+     * Updates the tracked operand stack depth for an instruction.
+     * @param opcode the Opcode that was appended
+     */
+    private void adjustStack(int opcode)
+    {
+        switch(opcode)
+        {
+            case Opcode.PUSH:
+            case Opcode.LOAD_LOCAL:
+            case Opcode.LOAD_GLOBAL:
+                stackDepth++;
+                break;
+            case Opcode.JUMP_IF_EQUAL:
+            case Opcode.JUMP_IF_NOT_EQUAL:
+            case Opcode.JUMP_IF_LESS:
+            case Opcode.JUMP_IF_GREATER:
+            case Opcode.JUMP_IF_LESS_EQUAL:
+            case Opcode.JUMP_IF_GREATER_EQUAL:
+                stackDepth -= 2;
+                break;
+            case Opcode.JUMP:
+            case Opcode.RETURN:
+            case Opcode.HALT:
+                break;
+            default:
+                stackDepth--;
+                break;
+        }
+        maxStackDepth = Math.max(maxStackDepth, stackDepth);
+    }
+}
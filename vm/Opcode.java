@@ -0,0 +1,110 @@
+package vm;
+
+/**
+ * The Opcode class lists the instructions understood by the VirtualMachine.
+ * Each instruction is one int in a Bytecode array, followed by its operands
+ * (if it has any). The comment beside each opcode gives its operands and its
+ * effect on the operand stack.
+ *
+ * The _CONSTANT opcodes are fused forms of a PUSH followed by an arithmetic
+ * or jump instruction. Bytecode produces them automatically so that the
+ * common "variable op number" case costs one dispatch instead of two.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public final class Opcode
+{
+    /** value: pushes the value. */
+    public static final int PUSH = 0;
+    /** slot: pushes the local variable in the given frame slot. */
+    public static final int LOAD_LOCAL = 1;
+    /** slot: pops a value into the given frame slot. */
+    public static final int STORE_LOCAL = 2;
+    /** slot: pushes the global variable in the given slot. */
+    public static final int LOAD_GLOBAL = 3;
+    /** slot: pops a value into the given global slot. */
+    public static final int STORE_GLOBAL = 4;
+    /** Pops b and a, pushes a + b. */
+    public static final int ADD = 5;
+    /** Pops b and a, pushes a - b. */
+    public static final int SUBTRACT = 6;
+    /** Pops b and a, pushes a * b. */
+    public static final int MULTIPLY = 7;
+    /** Pops b and a, pushes a / b. */
+    public static final int DIVIDE = 8;
+    /** Pops b and a, pushes a % b. */
+    public static final int MODULO = 9;
+    /** target: continues at the target. */
+    public static final int JUMP = 10;
+    /** target: pops b and a, jumps if a == b. */
+    public static final int JUMP_IF_EQUAL = 11;
+    /** target: pops b and a, jumps if a != b. */
+    public static final int JUMP_IF_NOT_EQUAL = 12;
+    /** target: pops b and a, jumps if a &lt; b. */
+    public static final int JUMP_IF_LESS = 13;
+    /** target: pops b and a, jumps if a &gt; b. */
+    public static final int JUMP_IF_GREATER = 14;
+    /** target: pops b and a, jumps if a &lt;= b. */
+    public static final int JUMP_IF_LESS_EQUAL = 15;
+    /** target: pops b and a, jumps if a &gt;= b. */
+    public static final int JUMP_IF_GREATER_EQUAL = 16;
+    /** Pops a value and prints it on its own line. */
+    public static final int PRINT = 17;
+    /** procedure: calls the procedure with the arguments on top of the stack. */
+    public static final int CALL = 18;
+    /** slot: returns from a procedure, leaving the value in the given frame slot on the stack. */
+    public static final int RETURN = 19;
+    /** Stops the program. */
+    public static final int HALT = 20;
+    /** value: pops a, pushes a + value. */
+    public static final int ADD_CONSTANT = 21;
+    /** value: pops a, pushes a - value. */
+    public static final int SUBTRACT_CONSTANT = 22;
+    /** value: pops a, pushes a * value. */
+    public static final int MULTIPLY_CONSTANT = 23;
+    /** value: pops a, pushes a / value. */
+    public static final int DIVIDE_CONSTANT = 24;
+    /** value: pops a, pushes a % value. */
+    public static final int MODULO_CONSTANT = 25;
+    /** value, target: pops a, jumps if a == value. */
+    public static final int JUMP_IF_EQUAL_CONSTANT = 27;
+    /** value, target: pops a, jumps if a != value. */
+    public static final int JUMP_IF_NOT_EQUAL_CONSTANT = 28;
+    /** value, target: pops a, jumps if a &lt; value. */
+    public static final int JUMP_IF_LESS_CONSTANT = 29;
+    /** value, target: pops a, jumps if a &gt; value. */
+    public static final int JUMP_IF_GREATER_CONSTANT = 30;
+    /** value, target: pops a, jumps if a &lt;= value. */
+    public static final int JUMP_IF_LESS_EQUAL_CONSTANT = 31;
+    /** value, target: pops a, jumps if a &gt;= value. */
+    public static final int JUMP_IF_GREATER_EQUAL_CONSTANT = 32;
+
+    /**
+     * The difference between an arithmetic or conditional jump opcode and
+     * its _CONSTANT form.
+     */
+    public static final int CONSTANT_OFFSET = 16;
+
+    /**
+     * Opcode holds constants only and is never instantiated.
+     */
+    private Opcode()
+    {
+    }
+
+    /**
+     * Gives the number of operands that follow an opcode.
+     * @param opcode the opcode to check
+     * @return the number of operands the opcode takes
+     */
+    public static int getOperandCount(int opcode)
+    {
+        if(opcode >= JUMP_IF_EQUAL_CONSTANT)
+            return 2;
+        if(opcode <= STORE_GLOBAL || (opcode >= JUMP && opcode <= JUMP_IF_GREATER_EQUAL) ||
+                opcode == CALL || opcode == RETURN || opcode >= ADD_CONSTANT)
+            return 1;
+        return 0;
+    }
+}
@@ -0,0 +1,213 @@
+package vm;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * The VirtualMachine class runs a linked Bytecode program. It is a stack
+ * machine: instructions take their inputs from and leave their results on
+ * an operand stack. Each procedure call gets a frame at the bottom of its
+ * own part of that stack, starting with the arguments the caller pushed,
+ * so frame slots are read and written with a single array access.
+ *
+ * @author Saahas Kohli
+ * @version 11/19/2021
+ */
+public class VirtualMachine
+{
+    private Bytecode bytecode;
+    private PrintStream out;
+
+    /**
+     * Constructor for a VirtualMachine that prints to standard output.
+     * @param bytecode the linked program to run
+     */
+    public VirtualMachine(Bytecode bytecode)
+    {
+        this(bytecode, System.out);
+    }
+
+    /**
+     * Constructor for a VirtualMachine that prints to the given stream.
+     * @param bytecode the linked program to run
+     * @param out the stream that WRITELN output goes to
+     */
+    public VirtualMachine(Bytecode bytecode, PrintStream out)
+    {
+        this.bytecode = bytecode;
+        this.out = out;
+    }
+
+    /**
+     * Runs the program from the start of main until it halts. The top of the
+     * operand stack is kept in a local variable rather than in the array,
+     * which saves an array store and load for most instructions.
+     * @throws IllegalStateException if an undefined procedure is called
+     */
+    public void run()
+    {
+        int[] code = bytecode.getCode();
+        int[] entries = bytecode.getProcedureEntries();
+        int[] paramCounts = bytecode.getProcedureParamCounts();
+        int[] frameSizes = bytecode.getProcedureFrameSizes();
+        int[] maxStacks = bytecode.getProcedureMaxStacks();
+        int[] globals = new int[bytecode.getGlobalCount()];
+        int[] stack = new int[Math.max(16, bytecode.getMainMaxStack() + 1)];
+        int[] returnPcs = new int[16];
+        int[] savedFps = new int[16];
+        int callDepth = 0;
+        int pc = 0;
+        int sp = 0;
+        int fp = 0;
+        int top = 0;
+        while(true)
+        {
+            switch(code[pc++])
+            {
+                case Opcode.PUSH:
+                    stack[sp++] = top;
+                    top = code[pc++];
+                    break;
+                case Opcode.LOAD_LOCAL:
+                    stack[sp++] = top;
+                    top = stack[fp + code[pc++]];
+                    break;
+                case Opcode.STORE_LOCAL:
+                    stack[fp + code[pc++]] = top;
+                    top = stack[--sp];
+                    break;
+                case Opcode.LOAD_GLOBAL:
+                    stack[sp++] = top;
+                    top = globals[code[pc++]];
+                    break;
+                case Opcode.STORE_GLOBAL:
+                    globals[code[pc++]] = top;
+                    top = stack[--sp];
+                    break;
+                case Opcode.ADD:
+                    top = stack[--sp] + top;
+                    break;
+                case Opcode.SUBTRACT:
+                    top = stack[--sp] - top;
+                    break;
+                case Opcode.MULTIPLY:
+                    top = stack[--sp] * top;
+                    break;
+                case Opcode.DIVIDE:
+                    top = stack[--sp] / top;
+                    break;
+                case Opcode.MODULO:
+                    top = stack[--sp] % top;
+                    break;
+                case Opcode.ADD_CONSTANT:
+                    top += code[pc++];
+                    break;
+                case Opcode.SUBTRACT_CONSTANT:
+                    top -= code[pc++];
+                    break;
+                case Opcode.MULTIPLY_CONSTANT:
+                    top *= code[pc++];
+                    break;
+                case Opcode.DIVIDE_CONSTANT:
+                    top /= code[pc++];
+                    break;
+                case Opcode.MODULO_CONSTANT:
+                    top %= code[pc++];
+                    break;
+                case Opcode.JUMP:
+                    pc = code[pc];
+                    break;
+                case Opcode.JUMP_IF_EQUAL:
+                    pc = stack[--sp] == top ? code[pc] : pc + 1;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_NOT_EQUAL:
+                    pc = stack[--sp] != top ? code[pc] : pc + 1;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_LESS:
+                    pc = stack[--sp] < top ? code[pc] : pc + 1;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_GREATER:
+                    pc = stack[--sp] > top ? code[pc] : pc + 1;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_LESS_EQUAL:
+                    pc = stack[--sp] <= top ? code[pc] : pc + 1;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_GREATER_EQUAL:
+                    pc = stack[--sp] >= top ? code[pc] : pc + 1;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_EQUAL_CONSTANT:
+                    pc = top == code[pc] ? code[pc + 1] : pc + 2;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_NOT_EQUAL_CONSTANT:
+                    pc = top != code[pc] ? code[pc + 1] : pc + 2;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_LESS_CONSTANT:
+                    pc = top < code[pc] ? code[pc + 1] : pc + 2;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_GREATER_CONSTANT:
+                    pc = top > code[pc] ? code[pc + 1] : pc + 2;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_LESS_EQUAL_CONSTANT:
+                    pc = top <= code[pc] ? code[pc + 1] : pc + 2;
+                    top = stack[--sp];
+                    break;
+                case Opcode.JUMP_IF_GREATER_EQUAL_CONSTANT:
+                    pc = top >= code[pc] ? code[pc + 1] : pc + 2;
+                    top = stack[--sp];
+                    break;
+                case Opcode.PRINT:
+                    out.println(top);
+                    top = stack[--sp];
+                    break;
+                case Opcode.CALL:
+                {
+                    int proc = code[pc++];
+                    if(entries[proc] < 0)
+                        throw new IllegalStateException("Undefined procedure " +
+                                bytecode.getProcedureName(proc));
+                    stack[sp++] = top;
+                    int newFp = sp - paramCounts[proc];
+                    int frameEnd = newFp + frameSizes[proc];
+                    if(frameEnd + maxStacks[proc] + 1 > stack.length)
+                        stack = Arrays.copyOf(stack, 2 * (frameEnd + maxStacks[proc] + 1));
+                    for(int i = sp; i < frameEnd; i++)
+                        stack[i] = 0;
+                    if(callDepth == returnPcs.length)
+                    {
+                        returnPcs = Arrays.copyOf(returnPcs, 2 * callDepth);
+                        savedFps = Arrays.copyOf(savedFps, 2 * callDepth);
+                    }
+                    returnPcs[callDepth] = pc;
+                    savedFps[callDepth++] = fp;
+                    sp = frameEnd;
+                    fp = newFp;
+                    pc = entries[proc];
+                    break;
+                }
+                case Opcode.RETURN:
+                    top = stack[fp + code[pc]];
+                    sp = fp;
+                    callDepth--;
+                    pc = returnPcs[callDepth];
+                    fp = savedFps[callDepth];
+                    break;
+                case Opcode.HALT:
+                    out.flush();
+                    return;
+                default:
+                    throw new IllegalStateException("Bad opcode " + code[pc - 1] +
+                            " at " + (pc - 1));
+            }
+        }
+    }
+}